@@ -1,13 +1,11 @@
 package com.noxag.newnox.application;
 
-import static com.noxag.newnox.ui.pdfmodule.renderer.PDFPageRenderer.renderPDFTextOverlay;
-import static com.noxag.newnox.ui.pdfmodule.renderer.PDFPageRenderer.renderTextMarkupOverlay;
-
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -16,8 +14,9 @@ import java.util.stream.Collectors;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 
-import com.noxag.newnox.textanalyzer.Textanalyzer;
+import com.noxag.newnox.textanalyzer.IncrementalTextanalyzer;
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerProgressListener;
 import com.noxag.newnox.textanalyzer.algorithms.AkademischeAufrichtigkeitserklaerung;
 import com.noxag.newnox.textanalyzer.algorithms.BibliographyAnalyzer;
 import com.noxag.newnox.textanalyzer.algorithms.CommonAbbreviationAnalyzer;
@@ -34,9 +33,13 @@ import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
+import com.noxag.newnox.textanalyzer.util.PDFTextCache;
 import com.noxag.newnox.textlogic.ChartGenerator;
-import com.noxag.newnox.textlogic.PDFTextMarker;
+import com.noxag.newnox.ui.pdfmodule.renderer.PDFPageRenderService;
+import com.noxag.newnox.ui.pdfmodule.renderer.TextMarkupLayers;
 
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.scene.chart.BarChart;
 
 /**
@@ -44,6 +47,12 @@ import javafx.scene.chart.BarChart;
  * interface and serves as mediator between the userinterface and the text
  * processing
  * 
+ * <p>
+ * The analysis runs on a worker thread, so the userinterface stays
+ * responsive. Only its results are passed back to the JavaFX application
+ * thread, the events are always triggered there.
+ * </p>
+ * 
  * @author Tobias.Schmidt@de.ibm.com
  *
  */
@@ -51,24 +60,39 @@ public class MainController {
     private static final Logger LOGGER = Logger.getLogger(MainController.class.getName());
 
     private PDDocument pdfDoc;
+    private File pdfFile;
+    private PDFPageRenderService pageRenderService;
+    private IncrementalTextanalyzer textanalyzer;
+    private ExecutorService analysisExecutor;
+    private AnalysisTask analysisTask;
     private List<TextanalyzerAlgorithm> textanalyzerAlgorithms;
     private List<TextanalyzerAlgorithm> statisticanalyzerAlgorithms;
-    private Consumer<List<BufferedImage>> updatePDFImagesCallback;
+    private Consumer<PDFPageRenderService> updatePDFViewCallback;
     private BiConsumer<List<BarChart<String, Number>>, List<CommentaryFinding>> updateStatisticViewCallback;
-    private Consumer<List<BufferedImage>> updateTextMarkupImagesCallback;
+    private Consumer<TextMarkupLayers> updateTextMarkupCallback;
     private Consumer<String> alertPopupCallback;
+    private Consumer<Worker<?>> analysisStartedCallback;
 
-    private static final String ERROR_MESSAGE_TEXT_COULD_NOT_BE_MARKED = "PDF Text could not be markered";
     private static final String ERROR_MESSAGE_PDF_COULD_NOT_BE_CLOSED = "PDF document could not be closed";
+    private static final String ERROR_MESSAGE_PDF_COULD_NOT_BE_ANALYZED = "PDF document could not be analyzed";
+    private static final String ERROR_MESSAGE_PDF_COULD_NOT_BE_DISPLAYED = "PDF document could not be displayed";
 
     public MainController() {
+        textanalyzer = new IncrementalTextanalyzer(true);
+        textanalyzer.setTextCache(new PDFTextCache());
+        analysisExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PDF analysis");
+            // a running analysis must not keep the application alive
+            thread.setDaemon(true);
+            return thread;
+        });
         initTextanalyzerAlgorithms();
         initStatisticanalyzerAlgorithms();
     }
 
     /**
-     * This method reads a PDF document from a file and generates images of this
-     * PDF to be display in the userinterface
+     * This method reads a PDF document from a file and passes a renderer of
+     * its pages to the userinterface, which renders the pages on demand
      * 
      * @param path
      *            the path to the file that is supposed to be opened
@@ -78,37 +102,137 @@ public class MainController {
             this.triggerAlertPopupEvent(
                     "PDF konnte nicht geladen werden. Möglicherweise ist es in einer anderen Anwendung geÃ¶ffnet");
         } else {
+            cancelAnalysis();
+            closePDFAfterAnalysis(!file.equals(this.pdfFile));
             this.pdfDoc = readPDFFromFile(file);
-            triggerPDFImagesUpdateEvent(renderPDFTextOverlay(pdfDoc));
+            this.pdfFile = file;
+            try {
+                this.pageRenderService = new PDFPageRenderService(file);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, ERROR_MESSAGE_PDF_COULD_NOT_BE_DISPLAYED, e);
+                this.triggerAlertPopupEvent(ERROR_MESSAGE_PDF_COULD_NOT_BE_DISPLAYED);
+                // the previous service has already been closed
+                triggerPDFViewUpdateEvent(null);
+                return;
+            }
+            triggerPDFViewUpdateEvent(pageRenderService);
         }
 
     }
 
     /**
-     * This method analyzes the PDF document and processes the results so they
-     * can be displayed in the userinterface
+     * This method starts to analyze the PDF document and to process the
+     * results so they can be displayed in the userinterface
+     * 
+     * <p>
+     * The analysis runs in the background, this method returns immediately.
+     * A previous analysis that is still running is cancelled.
+     * </p>
      * 
      * @param textAnalyzerUINames
      *            the textanalyzer algorithms to be run referenced by name
      */
     public void analyzePDFDocument(List<String> textAnalyzerUINames) {
-        Textanalyzer textanalyzer = new Textanalyzer(getTextanalyzerAlgorithmFromName(textAnalyzerUINames));
-        List<Finding> findings = textanalyzer.analyze(this.pdfDoc);
+        cancelAnalysis();
+        analysisTask = new AnalysisTask(this.pdfDoc, this.pdfFile,
+                getTextanalyzerAlgorithmFromName(textAnalyzerUINames));
+        this.triggerAnalysisStartedEvent(analysisTask);
+        analysisExecutor.execute(analysisTask);
+    }
+
+    /**
+     * Cancels the running analysis, its results are discarded
+     * 
+     * <p>
+     * The task is cancelled at once, but the worker thread may still read
+     * the document until it notices the cancellation.
+     * </p>
+     */
+    public void cancelAnalysis() {
+        if (analysisTask != null) {
+            analysisTask.cancel();
+        }
+    }
 
-        List<StatisticFinding> statisticFindings = getFindingsOfSubInstances(findings, StatisticFinding.class);
-        List<TextFinding> textFindings = getFindingsOfSubInstances(findings, TextFinding.class);
-        List<CommentaryFinding> commentaryFinding = getFindingsOfSubInstances(findings, CommentaryFinding.class);
+    /**
+     * Closes the current document on the worker thread, which runs its tasks
+     * one after the other. So the document is only closed once a cancelled
+     * analysis has left it, without the userinterface waiting for that.
+     * 
+     * @param otherFile
+     *            whether the next document is read from another file, the
+     *            textanalyzer then forgets the pages of the current one
+     */
+    private void closePDFAfterAnalysis(boolean otherFile) {
+        PDDocument document = this.pdfDoc;
+        this.pdfDoc = null;
+        analysisExecutor.execute(() -> {
+            if (otherFile) {
+                textanalyzer.reset();
+            }
+            if (document != null) {
+                try {
+                    document.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, ERROR_MESSAGE_PDF_COULD_NOT_BE_CLOSED, e);
+                }
+            }
+        });
+    }
 
-        try {
-            PDFTextMarker.clearDocumentFromTextMarkups(this.pdfDoc);
-            PDFTextMarker.addTextMarkups(this.pdfDoc, textFindings);
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, ERROR_MESSAGE_TEXT_COULD_NOT_BE_MARKED, e);
-            this.triggerAlertPopupEvent(ERROR_MESSAGE_TEXT_COULD_NOT_BE_MARKED);
+    /**
+     * Analyzes a document on the worker thread
+     * 
+     * <p>
+     * Each algorithm counts as one step of the progress. The findings are
+     * passed to the userinterface once all algorithms have finished.
+     * </p>
+     */
+    private class AnalysisTask extends Task<List<Finding>> {
+        private final PDDocument document;
+        private final File file;
+        private final List<TextanalyzerAlgorithm> algorithms;
+
+        AnalysisTask(PDDocument document, File file, List<TextanalyzerAlgorithm> algorithms) {
+            this.document = document;
+            this.file = file;
+            this.algorithms = algorithms;
         }
 
-        this.triggerTextMarkupImagesUpdateEvent(renderTextMarkupOverlay(this.pdfDoc));
-        this.triggerStatisticViewUpdateEvent(ChartGenerator.generateBarCharts(statisticFindings), commentaryFinding);
+        @Override
+        protected List<Finding> call() {
+            updateMessage("Extracting text");
+            return textanalyzer.analyze(document, file, algorithms, new TextanalyzerProgressListener() {
+                @Override
+                public void algorithmCompleted(String uiName, int completedAlgorithms, int algorithmCount) {
+                    // reused algorithms are not run, so they are not counted either
+                    updateProgress(completedAlgorithms, algorithmCount);
+                    updateMessage(uiName + " finished");
+                }
+
+                @Override
+                public void pageAnalyzed(String uiName, int analyzedPages, int selectedPageCount) {
+                    updateMessage(uiName + ": page " + analyzedPages + " of " + selectedPageCount);
+                }
+            });
+        }
+
+        @Override
+        protected void succeeded() {
+            List<Finding> findings = getValue();
+            List<StatisticFinding> statisticFindings = getFindingsOfSubInstances(findings, StatisticFinding.class);
+            List<TextFinding> textFindings = getFindingsOfSubInstances(findings, TextFinding.class);
+            List<CommentaryFinding> commentaryFinding = getFindingsOfSubInstances(findings, CommentaryFinding.class);
+
+            triggerTextMarkupUpdateEvent(new TextMarkupLayers(textFindings));
+            triggerStatisticViewUpdateEvent(ChartGenerator.generateBarCharts(statisticFindings), commentaryFinding);
+        }
+
+        @Override
+        protected void failed() {
+            LOGGER.log(Level.WARNING, ERROR_MESSAGE_PDF_COULD_NOT_BE_ANALYZED, getException());
+            triggerAlertPopupEvent(ERROR_MESSAGE_PDF_COULD_NOT_BE_ANALYZED);
+        }
     }
 
     /**
@@ -122,12 +246,12 @@ public class MainController {
      *            the method to be called when the "PDFViewUUpdate" event is
      *            triggered
      */
-    public void registerPDFImagesUpdateEvent(Consumer<List<BufferedImage>> updatePDFImagesCallback) {
-        this.updatePDFImagesCallback = updatePDFImagesCallback;
+    public void registerPDFViewUpdateEvent(Consumer<PDFPageRenderService> updatePDFViewCallback) {
+        this.updatePDFViewCallback = updatePDFViewCallback;
     }
 
-    public void registerTextMarkupImagesUpdateEvent(Consumer<List<BufferedImage>> updateTextMarkupImagesCallback) {
-        this.updateTextMarkupImagesCallback = updateTextMarkupImagesCallback;
+    public void registerTextMarkupUpdateEvent(Consumer<TextMarkupLayers> updateTextMarkupCallback) {
+        this.updateTextMarkupCallback = updateTextMarkupCallback;
     }
 
     /**
@@ -150,18 +274,35 @@ public class MainController {
         this.alertPopupCallback = alertPopupCallback;
     }
 
+    /**
+     * Registers the "AnalysisStarted" event
+     * 
+     * <p>
+     * Calling this method twice will override the previous event callback
+     * </p>
+     * 
+     * @param analysisStartedCallback
+     *            the method to be called with the started analysis, it may
+     *            observe the progress of the analysis and whether it is still
+     *            running
+     */
+    public void registerAnalysisStartedEvent(Consumer<Worker<?>> analysisStartedCallback) {
+        this.analysisStartedCallback = analysisStartedCallback;
+    }
+
     /**
      * Triggers the "PDFViewUUpdate" event
      * 
-     * @param pdfImages
-     *            the pdf images that should be displayed in the userinterface
+     * @param pageRenderService
+     *            renders the pages that should be displayed in the
+     *            userinterface or null if no pages can be displayed
      */
-    public void triggerPDFImagesUpdateEvent(List<BufferedImage> pdfImages) {
-        updatePDFImagesCallback.accept(pdfImages);
+    public void triggerPDFViewUpdateEvent(PDFPageRenderService pageRenderService) {
+        updatePDFViewCallback.accept(pageRenderService);
     }
 
-    public void triggerTextMarkupImagesUpdateEvent(List<BufferedImage> textMarkupImages) {
-        updateTextMarkupImagesCallback.accept(textMarkupImages);
+    public void triggerTextMarkupUpdateEvent(TextMarkupLayers textMarkups) {
+        updateTextMarkupCallback.accept(textMarkups);
     }
 
     /**
@@ -180,6 +321,10 @@ public class MainController {
         alertPopupCallback.accept(alertMessage);
     }
 
+    public void triggerAnalysisStartedEvent(Worker<?> analysis) {
+        analysisStartedCallback.accept(analysis);
+    }
+
     /**
      * This method returns a list of the UINames of all textanalyzeralgorithms
      * that have been registered to the controller
@@ -218,6 +363,10 @@ public class MainController {
     }
 
     private void closePDF() throws IOException {
+        if (this.pageRenderService != null) {
+            this.pageRenderService.close();
+            this.pageRenderService = null;
+        }
         if (this.pdfDoc != null) {
             this.pdfDoc.close();
         }
@@ -250,7 +399,7 @@ public class MainController {
         this.textanalyzerAlgorithms.add(new SentenceComplexityAnalyzer());
         this.textanalyzerAlgorithms.add(new RepetitiveWordingAnalyzer());
         this.textanalyzerAlgorithms.add(new FontAnalyzer());
-        this.textanalyzerAlgorithms.add(new PaginationAnalyzer());
+        this.textanalyzerAlgorithms.add(new PaginationAnalyzer(true));
         this.textanalyzerAlgorithms.add(new BibliographyAnalyzer());
     }
 
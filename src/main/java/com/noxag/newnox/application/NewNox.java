@@ -28,11 +28,13 @@ public class NewNox extends Application {
 
         mainWindow.registerOpenPDFEvent(mainController::openPDFDocument);
         mainWindow.registerAnalyzeEvent(mainController::analyzePDFDocument);
+        mainWindow.registerCancelAnalysisEvent(mainController::cancelAnalysis);
 
-        mainController.registerPDFImagesUpdateEvent(mainWindow::updatePDFImages);
-        mainController.registerTextMarkupImagesUpdateEvent(mainWindow::updateTextMarkupImages);
+        mainController.registerPDFViewUpdateEvent(mainWindow::updatePDFView);
+        mainController.registerTextMarkupUpdateEvent(mainWindow::updateTextMarkups);
         mainController.registerStatisticViewUpdateEvent(mainWindow::updateStatisticView);
         mainController.registerAlertPopupEvent(mainWindow::popupAlert);
+        mainController.registerAnalysisStartedEvent(mainWindow::showAnalysisProgress);
     }
 
 }
@@ -0,0 +1,352 @@
+package com.noxag.newnox.textanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import com.noxag.newnox.textanalyzer.PageLocalTextanalyzerAlgorithm.PageSelection;
+import com.noxag.newnox.textanalyzer.data.Finding;
+import com.noxag.newnox.textanalyzer.data.pdf.FontTable;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textanalyzer.util.PDFFingerprintUtil;
+import com.noxag.newnox.textanalyzer.util.PDFTextCache;
+import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+
+/**
+ * This class analyzes successive revisions of a document and only redoes the
+ * work for the pages that have changed
+ * 
+ * <p>
+ * Every page is identified by its fingerprint, see
+ * {@link PDFFingerprintUtil}. Pages with the same fingerprint at the same
+ * index as in the previous revision are not extracted again.
+ * {@link PageLocalTextanalyzerAlgorithm}s reuse the results of those pages and
+ * only analyze the changed pages. All other algorithms reuse their
+ * findings if no page has changed at all and run on the partly reused pages
+ * otherwise.
+ * </p>
+ * 
+ * <p>
+ * When a file is analyzed for the first time by a single algorithm, the
+ * algorithm runs on its own and gets the text streamed, if it has not been
+ * cached, see {@link TextanalyzerContext#setStreaming(boolean)}. So it may
+ * also probe the document instead of extracting it. The streamed pages are
+ * not kept, so the next revision is extracted as a whole and kept from then
+ * on.
+ * </p>
+ * 
+ * <p>
+ * An analysis that is cancelled, see {@link Textanalyzer}, leaves the
+ * previous revision untouched. The previous revision is forgotten as soon as
+ * another file is analyzed.
+ * </p>
+ *
+ */
+public class IncrementalTextanalyzer {
+    private static final Logger LOGGER = Logger.getLogger(IncrementalTextanalyzer.class.getName());
+
+    private boolean parallel;
+    private PDFTextCache textCache;
+    private File file;
+    private List<String> fingerprints;
+    private List<PDFPage> pages;
+    private Map<TextanalyzerAlgorithm, Map<String, List<?>>> pageResults;
+    private Map<TextanalyzerAlgorithm, List<? extends Finding>> documentFindings;
+
+    public IncrementalTextanalyzer() {
+        this(false);
+    }
+
+    public IncrementalTextanalyzer(boolean parallel) {
+        this.parallel = parallel;
+        this.pageResults = new HashMap<>();
+        this.documentFindings = new HashMap<>();
+    }
+
+    /**
+     * Analyzes a revision of the document that has been analyzed before
+     * 
+     * @param pdfDoc
+     *            the revision to be analyzed
+     * @param pdfFile
+     *            the file the revision has been loaded from or null if unknown
+     * @param algorithms
+     *            the algorithms to run
+     * @return the results of all analysis
+     */
+    public List<Finding> analyze(PDDocument pdfDoc, File pdfFile, List<TextanalyzerAlgorithm> algorithms) {
+        return analyze(pdfDoc, pdfFile, algorithms, TextanalyzerProgressListener.NONE);
+    }
+
+    /**
+     * Analyzes a revision of the document that has been analyzed before and
+     * reports the progress
+     * 
+     * <p>
+     * Only the algorithms that are actually run are reported, the reused
+     * findings of the others are not.
+     * </p>
+     * 
+     * @param pdfDoc
+     *            the revision to be analyzed
+     * @param pdfFile
+     *            the file the revision has been loaded from or null if unknown
+     * @param algorithms
+     *            the algorithms to run
+     * @param progressListener
+     *            the listener that is notified about finished algorithms and
+     *            pages
+     * @return the results of all analysis
+     * @throws java.util.concurrent.CancellationException
+     *             if the analyzing thread has been interrupted
+     */
+    public synchronized List<Finding> analyze(PDDocument pdfDoc, File pdfFile, List<TextanalyzerAlgorithm> algorithms,
+            TextanalyzerProgressListener progressListener) {
+        boolean firstAnalysis = !Objects.equals(pdfFile, file);
+        if (firstAnalysis) {
+            reset();
+        }
+        boolean streaming = firstAnalysis && algorithms.size() == 1;
+        List<String> revisionFingerprints = fingerprint(pdfDoc);
+        boolean unchanged = revisionFingerprints != null && revisionFingerprints.equals(fingerprints);
+        TextanalyzerContext context = createContext(pdfDoc, pdfFile, revisionFingerprints);
+
+        Map<TextanalyzerAlgorithm, Map<String, List<?>>> revisionPageResults = new HashMap<>();
+        Map<TextanalyzerAlgorithm, List<? extends Finding>> revisionDocumentFindings = new HashMap<>();
+        List<TextanalyzerAlgorithm> algorithmsToRun = new ArrayList<>();
+        for (TextanalyzerAlgorithm algorithm : algorithms) {
+            if (algorithm instanceof PageLocalTextanalyzerAlgorithm && revisionFingerprints != null && !streaming) {
+                Map<String, List<?>> resultsByPage = new HashMap<>();
+                revisionPageResults.put(algorithm, resultsByPage);
+                algorithmsToRun.add(new PageLocalAlgorithmRun<>((PageLocalTextanalyzerAlgorithm<?>) algorithm,
+                        revisionFingerprints, resultsByPage, progressListener));
+            } else if (!unchanged || !documentFindings.containsKey(algorithm)) {
+                algorithmsToRun.add(algorithm);
+            }
+        }
+        context.setStreaming(streaming);
+
+        Textanalyzer revisionTextanalyzer = new Textanalyzer(algorithmsToRun, parallel);
+        revisionTextanalyzer.setProgressListener(progressListener);
+        List<List<? extends Finding>> results = revisionTextanalyzer.analyzeEach(context);
+        List<Finding> findings = new ArrayList<>();
+        int resultIndex = 0;
+        for (TextanalyzerAlgorithm algorithm : algorithms) {
+            List<? extends Finding> algorithmFindings;
+            if (resultIndex < algorithmsToRun.size() && isRunOf(algorithmsToRun.get(resultIndex), algorithm)) {
+                algorithmFindings = results.get(resultIndex++);
+            } else {
+                algorithmFindings = documentFindings.get(algorithm);
+            }
+            if (!(algorithm instanceof PageLocalTextanalyzerAlgorithm)) {
+                revisionDocumentFindings.put(algorithm, algorithmFindings);
+            }
+            findings.addAll(algorithmFindings);
+        }
+
+        rememberRevision(context, pdfFile, revisionFingerprints, revisionPageResults, revisionDocumentFindings);
+        return findings;
+    }
+
+    private boolean isRunOf(TextanalyzerAlgorithm run, TextanalyzerAlgorithm algorithm) {
+        return run == algorithm
+                || (run instanceof PageLocalAlgorithmRun && ((PageLocalAlgorithmRun<?>) run).algorithm == algorithm);
+    }
+
+    private List<String> fingerprint(PDDocument pdfDoc) {
+        try {
+            return PDFFingerprintUtil.fingerprintPages(pdfDoc);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Pages could not be fingerprinted, the document is analyzed as a whole", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reuses the pages of the previous revision that have not changed and
+     * only extracts the changed pages, in ranges of consecutive pages. The
+     * changed pages are extracted into the font table of the reused pages, so
+     * the font ids of all pages stay comparable.
+     */
+    private TextanalyzerContext createContext(PDDocument pdfDoc, File pdfFile, List<String> revisionFingerprints) {
+        if (revisionFingerprints == null || fingerprints == null || pages == null) {
+            return createDocumentContext(pdfDoc, pdfFile);
+        }
+        List<PDFPage> revisionPages = new ArrayList<>(revisionFingerprints.size());
+        FontTable fontTable = findFontTable(pages);
+        try {
+            int pageIndex = 0;
+            while (pageIndex < revisionFingerprints.size()) {
+                if (isUnchanged(pageIndex, revisionFingerprints)) {
+                    revisionPages.add(pages.get(pageIndex++));
+                    continue;
+                }
+                Textanalyzer.checkCancelled();
+                int changedPageIndex = pageIndex;
+                while (pageIndex < revisionFingerprints.size() && !isUnchanged(pageIndex, revisionFingerprints)) {
+                    pageIndex++;
+                }
+                revisionPages.addAll(
+                        PDFTextExtractionUtil.extractText(pdfDoc, changedPageIndex + 1, pageIndex, fontTable));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Changed pages could not be extracted, the document is extracted as a whole",
+                    e);
+            return createDocumentContext(pdfDoc, pdfFile);
+        }
+        return new TextanalyzerContext(pdfDoc, revisionPages);
+    }
+
+    private TextanalyzerContext createDocumentContext(PDDocument pdfDoc, File pdfFile) {
+        TextanalyzerContext context = new TextanalyzerContext(pdfDoc, pdfFile);
+        context.setTextCache(textCache);
+        return context;
+    }
+
+    private static FontTable findFontTable(List<PDFPage> pages) {
+        for (PDFPage page : pages) {
+            List<TextPositionSequence> words = page.getWords();
+            if (!words.isEmpty()) {
+                return words.get(0).getFontTable();
+            }
+        }
+        return new FontTable();
+    }
+
+    private boolean isUnchanged(int pageIndex, List<String> revisionFingerprints) {
+        return pageIndex < fingerprints.size()
+                && fingerprints.get(pageIndex).equals(revisionFingerprints.get(pageIndex));
+    }
+
+    private void rememberRevision(TextanalyzerContext context, File pdfFile, List<String> revisionFingerprints,
+            Map<TextanalyzerAlgorithm, Map<String, List<?>>> revisionPageResults,
+            Map<TextanalyzerAlgorithm, List<? extends Finding>> revisionDocumentFindings) {
+        try {
+            // a streamed text has not been kept, the next revision is extracted as a whole
+            pages = revisionFingerprints == null || !context.hasPages() ? null : context.getPages();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Pages of the revision could not be kept", e);
+            pages = null;
+        }
+        file = pdfFile;
+        fingerprints = pages == null ? null : revisionFingerprints;
+        pageResults = revisionPageResults;
+        documentFindings = revisionDocumentFindings;
+    }
+
+    /**
+     * Forgets the previous revision
+     */
+    public synchronized void reset() {
+        file = null;
+        fingerprints = null;
+        pages = null;
+        pageResults = new HashMap<>();
+        documentFindings = new HashMap<>();
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public PDFTextCache getTextCache() {
+        return textCache;
+    }
+
+    /**
+     * Sets the cache that is used to extract a document that has not been
+     * analyzed before
+     */
+    public void setTextCache(PDFTextCache textCache) {
+        this.textCache = textCache;
+    }
+
+    /**
+     * Runs a {@link PageLocalTextanalyzerAlgorithm} page by page and reuses
+     * the results of the pages that have not changed since the previous
+     * revision
+     */
+    private class PageLocalAlgorithmRun<R> implements TextanalyzerAlgorithm {
+        private final PageLocalTextanalyzerAlgorithm<R> algorithm;
+        private final List<String> revisionFingerprints;
+        private final Map<String, List<?>> resultsByPage;
+        private final Map<String, List<?>> previousResultsByPage;
+        private final TextanalyzerProgressListener progressListener;
+
+        PageLocalAlgorithmRun(PageLocalTextanalyzerAlgorithm<R> algorithm, List<String> revisionFingerprints,
+                Map<String, List<?>> resultsByPage, TextanalyzerProgressListener progressListener) {
+            this.algorithm = algorithm;
+            this.revisionFingerprints = revisionFingerprints;
+            this.resultsByPage = resultsByPage;
+            this.previousResultsByPage = pageResults.getOrDefault(algorithm, new HashMap<>());
+            this.progressListener = progressListener;
+        }
+
+        @Override
+        public List<? extends Finding> run(TextanalyzerContext context) {
+            List<R> results = new ArrayList<>();
+            try {
+                List<PDFPage> allPages = context.getPages();
+                boolean reduced = algorithm.getPageSelection() == PageSelection.REDUCED_CONTENT
+                        && PDFTextExtractionUtil.isReducibleToContent(
+                                (int) allPages.stream().filter(PDFPage::isContentPage).count(), allPages.size());
+                List<PDFPage> selectedPages = reduced ? context.getReducedContent() : allPages;
+                int selectedPageIndex = 0;
+                for (int pageIndex = 0; pageIndex < allPages.size(); pageIndex++) {
+                    if (reduced && !allPages.get(pageIndex).isContentPage()) {
+                        continue;
+                    }
+                    String key = getPageKey(pageIndex, reduced);
+                    PDFPage page = selectedPages.get(selectedPageIndex++);
+                    List<? extends R> resultsOfPage = getPreviousResults(key);
+                    if (resultsOfPage == null) {
+                        Textanalyzer.checkCancelled();
+                        resultsOfPage = algorithm.analyzePage(page, context);
+                    }
+                    resultsByPage.put(key, resultsOfPage);
+                    results.addAll(resultsOfPage);
+                    progressListener.pageAnalyzed(getUIName(), selectedPageIndex, selectedPages.size());
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not extract text from document", e);
+            }
+            return algorithm.mergePageResults(results);
+        }
+
+        /**
+         * The results are only remembered for the algorithm that computed them
+         */
+        @SuppressWarnings("unchecked")
+        private List<? extends R> getPreviousResults(String key) {
+            return (List<? extends R>) previousResultsByPage.get(key);
+        }
+
+        /**
+         * The results of a page may depend on its position, on whether it is
+         * the last page and on whether it has been reduced to its content
+         */
+        private String getPageKey(int pageIndex, boolean reduced) {
+            boolean lastPage = pageIndex == revisionFingerprints.size() - 1;
+            return pageIndex + ":" + revisionFingerprints.get(pageIndex) + ":" + lastPage + ":" + reduced;
+        }
+
+        @Override
+        public String getUIName() {
+            return algorithm.getUIName();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.noxag.newnox.textanalyzer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.noxag.newnox.textanalyzer.data.Finding;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
+
+/**
+ * A {@link TextanalyzerAlgorithm} whose findings of a page only depend on
+ * that page
+ * 
+ * <p>
+ * The results of every page are computed on their own and merged into the
+ * findings afterwards, so the results of unchanged pages can be reused by the
+ * {@link IncrementalTextanalyzer}. An algorithm that reports its findings
+ * page by page uses {@link Finding} as its page result, others may collect
+ * any intermediate data of a page.
+ * </p>
+ *
+ * @param <R>
+ *            the type of the results of a single page
+ */
+public interface PageLocalTextanalyzerAlgorithm<R> extends TextanalyzerAlgorithm {
+
+    /**
+     * The pages of the document an algorithm looks at
+     */
+    enum PageSelection {
+        /**
+         * @see TextanalyzerContext#getPages()
+         */
+        ALL_PAGES,
+        /**
+         * @see TextanalyzerContext#getReducedContent()
+         */
+        REDUCED_CONTENT
+    }
+
+    PageSelection getPageSelection();
+
+    /**
+     * @param page
+     *            a single page of the selected pages
+     * @param context
+     *            the context of the whole document
+     * @returns the results of the page
+     */
+    List<? extends R> analyzePage(PDFPage page, TextanalyzerContext context);
+
+    /**
+     * @param pageResults
+     *            the results of all selected pages in page order
+     * @returns the findings of the whole document
+     */
+    List<? extends Finding> mergePageResults(List<R> pageResults);
+
+    @Override
+    default List<? extends Finding> run(TextanalyzerContext context) {
+        List<R> pageResults = new ArrayList<>();
+        try {
+            if (getPageSelection() == PageSelection.ALL_PAGES) {
+                context.forEachPage(page -> pageResults.addAll(analyzePage(page, context)));
+            } else {
+                pageResults.addAll(context.<List<R>> collectReducedContent(ArrayList::new,
+                        (results, page) -> results.addAll(analyzePage(page, context))));
+            }
+        } catch (IOException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Could not extract text from document", e);
+        }
+        return mergePageResults(pageResults);
+    }
+
+}
@@ -1,23 +1,61 @@
 package com.noxag.newnox.textanalyzer;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 
 import com.noxag.newnox.textanalyzer.data.Finding;
+import com.noxag.newnox.textanalyzer.util.PDFTextCache;
 
 /**
  * This class is used to run a set of {@link TextanalyzerAlgorithm}
  * 
+ * <p>
+ * In parallel mode the algorithms run concurrently on a bounded thread pool
+ * that is shared by all analyses. They share the text of the
+ * {@link TextanalyzerContext} read-only and the findings are still merged in
+ * the order of the algorithm list.
+ * </p>
+ * 
+ * <p>
+ * An analysis can be cancelled by interrupting the thread that runs it. It
+ * stops with a {@link CancellationException} as soon as the running
+ * algorithms reach their next page. Until then the cancelled analysis still
+ * waits for its algorithms, because they use the shared context.
+ * </p>
+ * 
  * @author Tobias.Schmidt@de.ibm.com
  *
  */
 public class Textanalyzer {
+    private static final ExecutorService ALGORITHM_EXECUTOR = createAlgorithmExecutor();
+
     List<TextanalyzerAlgorithm> algorithms;
+    private boolean parallel;
+    private PDFTextCache textCache;
+    private TextanalyzerProgressListener progressListener = TextanalyzerProgressListener.NONE;
 
     public Textanalyzer(List<TextanalyzerAlgorithm> list) {
+        this(list, false);
+    }
+
+    public Textanalyzer(List<TextanalyzerAlgorithm> list, boolean parallel) {
         this.algorithms = list;
+        this.parallel = parallel;
     }
 
     /**
@@ -29,8 +67,226 @@ public class Textanalyzer {
      * @return the results of all analysis
      */
     public List<Finding> analyze(PDDocument pdfDoc) {
+        return analyze(pdfDoc, null);
+    }
+
+    /**
+     * This method runs all {@link TextanalyzerAlgorithm} contained in this
+     * class and merges the results of all analysis
+     * 
+     * <p>
+     * A single algorithm gets its text streamed page by page, because no other
+     * algorithm could share the extracted pages.
+     * </p>
+     * 
+     * @param pdfDoc
+     *            the PDF document to be analyzed
+     * @param pdfFile
+     *            the file the document has been loaded from or null if
+     *            unknown
+     * @return the results of all analysis
+     */
+    public List<Finding> analyze(PDDocument pdfDoc, File pdfFile) {
+        TextanalyzerContext context = new TextanalyzerContext(pdfDoc, pdfFile);
+        context.setStreaming(algorithms.size() == 1);
+        context.setTextCache(textCache);
+        return analyze(context);
+    }
+
+    /**
+     * This method runs all {@link TextanalyzerAlgorithm} contained in this
+     * class on a shared {@link TextanalyzerContext} and merges the results of
+     * all analysis
+     * 
+     * @param context
+     *            the context of the PDF document to be analyzed
+     * @return the results of all analysis
+     */
+    public List<Finding> analyze(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        algorithms.stream().forEach(algorithm -> findings.addAll((algorithm.run(pdfDoc))));
+        analyzeEach(context).forEach(findings::addAll);
+        return findings;
+    }
+
+    /**
+     * This method runs all {@link TextanalyzerAlgorithm} contained in this
+     * class on a shared {@link TextanalyzerContext} and keeps the results of
+     * every algorithm on their own
+     * 
+     * @param context
+     *            the context of the PDF document to be analyzed
+     * @return the results of every algorithm in the order of the algorithms
+     */
+    public List<List<? extends Finding>> analyzeEach(TextanalyzerContext context) {
+        if (parallel && algorithms.size() > 1) {
+            return analyzeParallel(context);
+        }
+        List<List<? extends Finding>> findings = new ArrayList<>();
+        for (TextanalyzerAlgorithm algorithm : algorithms) {
+            checkCancelled();
+            findings.add(algorithm.run(context));
+            progressListener.algorithmCompleted(algorithm.getUIName(), findings.size(), algorithms.size());
+        }
         return findings;
     }
+
+    private static ExecutorService createAlgorithmExecutor() {
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "Textanalyzer algorithm");
+                    // a running analysis must not keep the application alive
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private List<List<? extends Finding>> analyzeParallel(TextanalyzerContext context) {
+        ParallelRun run = new ParallelRun(context);
+        List<Future<List<? extends Finding>>> results = algorithms.stream()
+                .map(algorithm -> ALGORITHM_EXECUTOR.<List<? extends Finding>> submit(() -> run.run(algorithm)))
+                .collect(Collectors.toList());
+        try {
+            // keep the order of the algorithms, not the order of completion
+            List<List<? extends Finding>> findings = new ArrayList<>();
+            for (Future<List<? extends Finding>> result : results) {
+                findings.add(result.get());
+            }
+            return findings;
+        } catch (InterruptedException e) {
+            // the pool threads are interrupted by cancel below
+            Thread.currentThread().interrupt();
+            CancellationException cancellation = new CancellationException("Analysis has been cancelled");
+            cancellation.initCause(e);
+            throw cancellation;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Textanalyzer algorithm failed", e.getCause());
+        } finally {
+            run.cancel();
+            run.awaitAlgorithms();
+        }
+    }
+
+    /**
+     * The algorithms of a single parallel analysis on the shared pool
+     * 
+     * <p>
+     * Cancelling the run interrupts its running algorithms and skips the
+     * ones that have not started yet. Every algorithm leaves the run, even a
+     * skipped one, so the run can wait until none of them uses the context
+     * anymore.
+     * </p>
+     */
+    private class ParallelRun {
+        private final TextanalyzerContext context;
+        private final AtomicInteger completedAlgorithms;
+        private final CountDownLatch leftAlgorithms;
+        private final Set<Thread> runningThreads;
+        private boolean cancelled;
+
+        ParallelRun(TextanalyzerContext context) {
+            this.context = context;
+            this.completedAlgorithms = new AtomicInteger();
+            this.leftAlgorithms = new CountDownLatch(algorithms.size());
+            this.runningThreads = new HashSet<>();
+        }
+
+        List<? extends Finding> run(TextanalyzerAlgorithm algorithm) {
+            try {
+                synchronized (this) {
+                    if (cancelled) {
+                        throw new CancellationException("Analysis has been cancelled");
+                    }
+                    runningThreads.add(Thread.currentThread());
+                }
+                try {
+                    checkCancelled();
+                    List<? extends Finding> findings = algorithm.run(context);
+                    progressListener.algorithmCompleted(algorithm.getUIName(), completedAlgorithms.incrementAndGet(),
+                            algorithms.size());
+                    return findings;
+                } finally {
+                    synchronized (this) {
+                        runningThreads.remove(Thread.currentThread());
+                    }
+                    // the pool thread goes on with other tasks
+                    Thread.interrupted();
+                }
+            } finally {
+                leftAlgorithms.countDown();
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            runningThreads.forEach(Thread::interrupt);
+        }
+
+        /**
+         * Waits until every algorithm has left the run, algorithms that
+         * ignore the interrupt are waited for as well
+         */
+        void awaitAlgorithms() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    leftAlgorithms.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stops the analysis if the current thread has been interrupted
+     * 
+     * @throws CancellationException
+     *             if the analysis has been cancelled
+     */
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Analysis has been cancelled");
+        }
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public PDFTextCache getTextCache() {
+        return textCache;
+    }
+
+    /**
+     * Sets the cache that is used by {@link #analyze(PDDocument, File)} to
+     * skip the text extraction of already known files
+     */
+    public void setTextCache(PDFTextCache textCache) {
+        this.textCache = textCache;
+    }
+
+    public TextanalyzerProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * Sets the listener that is notified whenever an algorithm has finished
+     */
+    public void setProgressListener(TextanalyzerProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
 }
\ No newline at end of file
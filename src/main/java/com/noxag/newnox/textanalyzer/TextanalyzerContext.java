@@ -0,0 +1,436 @@
+package com.noxag.newnox.textanalyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFTextIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.SentenceIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenDictionary;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenStream;
+import com.noxag.newnox.textanalyzer.util.PDFTextCache;
+import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+import com.noxag.newnox.textanalyzer.util.SentenceSegmenter;
+
+/**
+ * This class holds the text of a single {@link PDDocument} that is shared by
+ * all {@link TextanalyzerAlgorithm}s of one analysis run
+ *
+ * <p>
+ * The text is only extracted once, on first access. Every view of the text is
+ * computed lazily and then reused by all following algorithms. The views are
+ * unmodifiable and the accessors are synchronized, so algorithms running in
+ * parallel can share one context. The callbacks of the forward passes are
+ * called outside of the lock, so algorithms only wait for each other while a
+ * view is computed.
+ * </p>
+ * 
+ * <p>
+ * If the file of the document is known, the text is extracted in parallel
+ * with one {@link PDDocument} instance per thread.
+ * </p>
+ * 
+ * <p>
+ * If a {@link PDFTextCache} is set, the pages are read from the cache and
+ * only extracted and cached if the file is not cached yet.
+ * </p>
+ * 
+ * <p>
+ * All algorithms share one {@link TokenDictionary}, so the words of the
+ * document can be handled as integer ids instead of Strings.
+ * </p>
+ * 
+ * <p>
+ * In streaming mode algorithms that only need a forward pass over the pages
+ * get the pages one at a time straight from the text stripper, as long as no
+ * other algorithm has extracted the whole document yet. Algorithms that only
+ * need a few pages may probe the document instead, see
+ * {@link #probeDocument(DocumentProbe)}.
+ * </p>
+ *
+ */
+public class TextanalyzerContext {
+
+    /**
+     * Extracts only the parts of a document an algorithm needs
+     *
+     * @param <T>
+     *            the result of the probe, it must not be null
+     */
+    @FunctionalInterface
+    public interface DocumentProbe<T> {
+        T probe(PDDocument document) throws IOException;
+    }
+
+    private final PDDocument document;
+    private final File documentFile;
+    private boolean streaming;
+    private PDFTextCache textCache;
+    private String documentHash;
+    private Boolean cached;
+    private List<PDFPage> pages;
+    private List<PDFPage> contentPages;
+    private List<PDFPage> reducedContent;
+    private PDFTextIndex textIndex;
+    private PDFTextIndex contentIndex;
+    private PDFTextIndex reducedContentIndex;
+    private SentenceSegmenter sentenceSegmenter;
+    private SentenceIndex reducedContentSentences;
+    private final TokenDictionary tokenDictionary;
+    private TokenStream reducedContentTokens;
+
+    public TextanalyzerContext(PDDocument document) {
+        this(document, (File) null);
+    }
+
+    /**
+     * @param document
+     *            the document to be analyzed
+     * @param documentFile
+     *            the file the document has been loaded from or null if
+     *            unknown
+     */
+    public TextanalyzerContext(PDDocument document, File documentFile) {
+        this.document = document;
+        this.documentFile = documentFile;
+        this.tokenDictionary = new TokenDictionary();
+    }
+
+    /**
+     * Creates a context for pages that have already been extracted
+     * 
+     * @param document
+     *            the document to be analyzed
+     * @param pages
+     *            the text of all pages of the document
+     */
+    public TextanalyzerContext(PDDocument document, List<PDFPage> pages) {
+        this(document, (File) null);
+        this.pages = Collections.unmodifiableList(pages);
+    }
+
+    public PDDocument getDocument() {
+        return document;
+    }
+
+    public File getDocumentFile() {
+        return documentFile;
+    }
+
+    public synchronized boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Enables the streaming mode. This should only be used if the pages are
+     * not needed as a whole by any other algorithm, because every forward pass
+     * extracts the text again.
+     */
+    public synchronized void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public synchronized PDFTextCache getTextCache() {
+        return textCache;
+    }
+
+    /**
+     * Sets the cache for the extracted pages. The cache is only used if the
+     * file of the document is known.
+     */
+    public synchronized void setTextCache(PDFTextCache textCache) {
+        this.textCache = textCache;
+    }
+
+    /**
+     * Returns the dictionary that maps the normalized words of this document
+     * to their ids
+     */
+    public TokenDictionary getTokenDictionary() {
+        return tokenDictionary;
+    }
+
+    /**
+     * Returns the text of all pages of the document
+     *
+     * @returns a representation of the documents' text
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see PDFTextExtractionUtil#extractText(PDDocument)
+     * @see PDFTextExtractionUtil#extractTextParallel(File)
+     */
+    public synchronized List<PDFPage> getPages() throws IOException {
+        if (pages == null) {
+            pages = Collections.unmodifiableList(isCacheable() ? loadCachedPages() : extractPages());
+        }
+        return pages;
+    }
+
+    /**
+     * Checks if the text of all pages is available without extracting it
+     */
+    public synchronized boolean hasPages() {
+        return pages != null;
+    }
+
+    private List<PDFPage> extractPages() throws IOException {
+        return documentFile == null ? PDFTextExtractionUtil.extractText(document)
+                : PDFTextExtractionUtil.extractTextParallel(documentFile);
+    }
+
+    private List<PDFPage> loadCachedPages() throws IOException {
+        List<PDFPage> cachedPages = textCache.load(getDocumentHash());
+        if (cachedPages != null) {
+            return cachedPages;
+        }
+        List<PDFPage> extractedPages = extractPages();
+        textCache.store(getDocumentHash(), extractedPages);
+        return extractedPages;
+    }
+
+    private boolean isCacheable() {
+        return textCache != null && documentFile != null;
+    }
+
+    private String getDocumentHash() throws IOException {
+        if (documentHash == null) {
+            documentHash = PDFTextCache.hash(documentFile);
+        }
+        return documentHash;
+    }
+
+    private boolean isCached() throws IOException {
+        if (cached == null) {
+            cached = isCacheable() && textCache.contains(getDocumentHash());
+        }
+        return cached;
+    }
+
+    /**
+     * The text is only streamed if it has neither been extracted yet nor can
+     * be read from the cache. A streamed text is not stored in the cache,
+     * because it is never held as a whole.
+     */
+    private boolean isStreamingExtraction() throws IOException {
+        return streaming && pages == null && !isCached();
+    }
+
+    /**
+     * Runs a probe on the document instead of extracting all pages
+     * 
+     * <p>
+     * This only saves work if no other algorithm extracts the whole document
+     * anyway, which is only known in streaming mode, and as long as the pages
+     * have neither been extracted yet nor can be read from the cache. The
+     * probe holds the lock of this context, because a {@link PDDocument} must
+     * not be used by several threads at once.
+     * </p>
+     * 
+     * @param probe
+     *            extracts the parts of the document the algorithm needs
+     * @returns the result of the probe or null if the algorithm should use
+     *          {@link #getPages()} instead
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public synchronized <T> T probeDocument(DocumentProbe<T> probe) throws IOException {
+        if (document == null || !isStreamingExtraction()) {
+            return null;
+        }
+        return probe.probe(document);
+    }
+
+    /**
+     * Hands every page of the document to the consumer in page order
+     * 
+     * <p>
+     * Only a streaming extraction holds the lock while the consumer runs,
+     * because it reads the {@link PDDocument}. Streaming is only enabled for a
+     * single algorithm, so no other algorithm waits for it.
+     * </p>
+     * 
+     * @param pageConsumer
+     *            the consumer to receive the pages
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see PDFTextExtractionUtil#extractText(PDDocument, Consumer)
+     */
+    public void forEachPage(Consumer<PDFPage> pageConsumer) throws IOException {
+        List<PDFPage> allPages;
+        synchronized (this) {
+            if (isStreamingExtraction()) {
+                PDFTextExtractionUtil.extractText(document, pageConsumer);
+                return;
+            }
+            allPages = getPages();
+        }
+        allPages.forEach(pageConsumer);
+    }
+
+    /**
+     * Accumulates the pages of {@link #getReducedContent()} in a single
+     * forward pass
+     * 
+     * <p>
+     * Whether the document can be reduced to its content is only known after
+     * the last page. So in streaming mode the pages are accumulated twice,
+     * once as they are and once reduced to content, and the matching result
+     * is returned. Like in {@link #forEachPage(Consumer)} the accumulator only
+     * runs within the lock while streaming.
+     * </p>
+     * 
+     * @param supplier
+     *            creates a new, empty result
+     * @param accumulator
+     *            adds a single page to a result
+     * @returns the accumulated result
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public <A> A collectReducedContent(Supplier<A> supplier, BiConsumer<A, PDFPage> accumulator)
+            throws IOException {
+        List<PDFPage> reducedPages;
+        synchronized (this) {
+            if (isStreamingExtraction()) {
+                return collectStreamedReducedContent(supplier, accumulator);
+            }
+            reducedPages = getReducedContent();
+        }
+        A reducedContentResult = supplier.get();
+        reducedPages.forEach(page -> accumulator.accept(reducedContentResult, page));
+        return reducedContentResult;
+    }
+
+    private <A> A collectStreamedReducedContent(Supplier<A> supplier, BiConsumer<A, PDFPage> accumulator)
+            throws IOException {
+        A pagesResult = supplier.get();
+        A contentPagesResult = supplier.get();
+        int[] pageCounts = new int[2];
+        PDFTextExtractionUtil.extractText(document, page -> {
+            pageCounts[0]++;
+            accumulator.accept(pagesResult, page);
+            if (page.isContentPage()) {
+                pageCounts[1]++;
+                accumulator.accept(contentPagesResult, PDFTextExtractionUtil.reduceToContent(page));
+            }
+        });
+        return PDFTextExtractionUtil.isReducibleToContent(pageCounts[1], pageCounts[0]) ? contentPagesResult
+                : pagesResult;
+    }
+
+    /**
+     * Returns all pages that contain actual content
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see PDFTextExtractionUtil#extractContentPages(List)
+     */
+    public synchronized List<PDFPage> getContentPages() throws IOException {
+        if (contentPages == null) {
+            contentPages = Collections.unmodifiableList(PDFTextExtractionUtil.extractContentPages(getPages()));
+        }
+        return contentPages;
+    }
+
+    /**
+     * Returns all content pages reduced to the lines that are real content
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see PDFTextExtractionUtil#reduceToContent(List)
+     */
+    public synchronized List<PDFPage> getReducedContent() throws IOException {
+        if (reducedContent == null) {
+            reducedContent = Collections.unmodifiableList(PDFTextExtractionUtil.reduceToContent(getPages()));
+        }
+        return reducedContent;
+    }
+
+    /**
+     * Returns the words of {@link #getReducedContent()} as token stream
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see TokenStream#of(List, TokenDictionary)
+     */
+    public synchronized TokenStream getReducedContentTokens() throws IOException {
+        if (reducedContentTokens == null) {
+            reducedContentTokens = TokenStream.of(getReducedContentIndex().getWords(), tokenDictionary);
+        }
+        return reducedContentTokens;
+    }
+
+    /**
+     * Returns the flattened index of {@link #getPages()}
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public synchronized PDFTextIndex getTextIndex() throws IOException {
+        if (textIndex == null) {
+            textIndex = PDFTextIndex.of(getPages());
+        }
+        return textIndex;
+    }
+
+    /**
+     * Returns the flattened index of {@link #getContentPages()}
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public synchronized PDFTextIndex getContentIndex() throws IOException {
+        if (contentIndex == null) {
+            contentIndex = PDFTextIndex.of(getContentPages());
+        }
+        return contentIndex;
+    }
+
+    /**
+     * Returns the flattened index of {@link #getReducedContent()}
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public synchronized PDFTextIndex getReducedContentIndex() throws IOException {
+        if (reducedContentIndex == null) {
+            reducedContentIndex = PDFTextIndex.of(getReducedContent());
+        }
+        return reducedContentIndex;
+    }
+
+    /**
+     * Sets the segmenter for {@link #getReducedContentSentences()}. By default
+     * the segmenter knows the common abbreviations.
+     */
+    public synchronized void setSentenceSegmenter(SentenceSegmenter sentenceSegmenter) {
+        this.sentenceSegmenter = sentenceSegmenter;
+        this.reducedContentSentences = null;
+    }
+
+    /**
+     * Returns the sentences of {@link #getReducedContentIndex()}
+     *
+     * @throws IOException
+     *             if PDDcument can not be read
+     * @see SentenceSegmenter#segment(PDFTextIndex)
+     */
+    public synchronized SentenceIndex getReducedContentSentences() throws IOException {
+        if (reducedContentSentences == null) {
+            if (sentenceSegmenter == null) {
+                sentenceSegmenter = SentenceSegmenter
+                        .fromAbbreviationList(SentenceSegmenter.DEFAULT_ABBREVIATION_LIST_PATH);
+            }
+            reducedContentSentences = sentenceSegmenter.segment(getReducedContentIndex());
+        }
+        return reducedContentSentences;
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.noxag.newnox.textanalyzer;
+
+/**
+ * This interface is notified about the progress of an analysis
+ *
+ * <p>
+ * In parallel mode the listener is called from several threads at once, so
+ * it has to be thread-safe.
+ * </p>
+ *
+ */
+public interface TextanalyzerProgressListener {
+
+    /**
+     * A listener that ignores all progress
+     */
+    TextanalyzerProgressListener NONE = (uiName, completedAlgorithms, algorithmCount) -> {
+    };
+
+    /**
+     * Called after an algorithm has finished
+     *
+     * @param uiName
+     *            the UIName of the finished algorithm
+     * @param completedAlgorithms
+     *            the number of algorithms that have finished so far
+     * @param algorithmCount
+     *            the number of algorithms that are run
+     */
+    void algorithmCompleted(String uiName, int completedAlgorithms, int algorithmCount);
+
+    /**
+     * Called after an algorithm that analyzes page by page has finished a page
+     *
+     * @param uiName
+     *            the UIName of the algorithm
+     * @param analyzedPages
+     *            the number of pages the algorithm has finished so far
+     * @param pageCount
+     *            the number of pages the algorithm analyzes
+     */
+    default void pageAnalyzed(String uiName, int analyzedPages, int pageCount) {
+        // most listeners are only interested in whole algorithms
+    }
+
+}
@@ -12,11 +12,13 @@ import java.util.stream.Collectors;
 import org.apache.pdfbox.pdmodel.PDDocument;
 
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFParagraph;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenDictionary;
 import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
 import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 import com.opencsv.CSVReader;
@@ -25,6 +27,16 @@ import com.opencsv.CSVReader;
  * This class produces a commentary finding to show if the "Akademische
  * Aufrichtigkeitserklaerung" exists.
  * 
+ * <p>
+ * If this algorithm runs alone on a document whose text has neither been
+ * extracted nor cached yet, like on the first analysis of a file in the
+ * {@link com.noxag.newnox.textanalyzer.IncrementalTextanalyzer}, the pages
+ * are extracted in the order the declaration is most likely found in: the
+ * last pages, the first pages and then the rest. The search stops at the
+ * first paragraph that contains all hints. See
+ * {@link TextanalyzerContext#probeDocument}.
+ * </p>
+ * 
  * @author Lars.Dittert@de.ibm.com
  *
  */
@@ -32,18 +44,31 @@ import com.opencsv.CSVReader;
 public class AkademischeAufrichtigkeitserklaerung implements TextanalyzerAlgorithm {
     private static final Logger LOGGER = Logger.getLogger(AkademischeAufrichtigkeitserklaerung.class.getName());
     private static final String AUFRICHTIGKEITSERKLAERUNG_IDENTIFICATION_LIST_PATH = "src/main/resources/analyzer-conf/aufrichtigkeitserklaerung-hints.csv";
+    private static final int PROBE_PAGE_COUNT = 3;
     private List<String> aufrichtigkeitserklaerungHints;
+    private TokenDictionary hintDictionary;
 
     public AkademischeAufrichtigkeitserklaerung() {
         aufrichtigkeitserklaerungHints = readAufrichtigkeitserklaerungIdentificationListFile(
                 AUFRICHTIGKEITSERKLAERUNG_IDENTIFICATION_LIST_PATH);
+        // the distinct hints get the ids 0 to n - 1
+        hintDictionary = new TokenDictionary();
+        aufrichtigkeitserklaerungHints.forEach(hintDictionary::getId);
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
         CommentaryFinding commentaryFinding;
-        int foundPage = compareString(splitPagesIntoParagraphs(getNotContentPages(doc)));
+        Integer foundPage = 0;
+        try {
+            foundPage = context.probeDocument(this::probeDocument);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not get pages from doc.", e);
+        }
+        if (foundPage == null) {
+            foundPage = compareString(splitPagesIntoParagraphs(getNotContentPages(context)));
+        }
         if (foundPage != 0) {
             commentaryFinding = new CommentaryFinding("Declaration of sincerity found", "DeclarationOfSincerity",
                     foundPage, 0);
@@ -55,10 +80,10 @@ public class AkademischeAufrichtigkeitserklaerung implements TextanalyzerAlgorit
         return findings;
     }
 
-    public static List<PDFPage> getNotContentPages(PDDocument doc) {
+    public static List<PDFPage> getNotContentPages(TextanalyzerContext context) {
         List<PDFPage> pages = new ArrayList<>();
         try {
-            pages = PDFTextExtractionUtil.extractText(doc);
+            pages = context.getPages();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not get pages from doc.", e);
             e.printStackTrace();
@@ -66,6 +91,45 @@ public class AkademischeAufrichtigkeitserklaerung implements TextanalyzerAlgorit
         return pages.stream().filter(page -> !page.isContentPage()).collect(Collectors.toList());
     }
 
+    /**
+     * Extracts a few pages at a time in the order of {@link #getProbeRanges}
+     * until the declaration is found
+     * 
+     * @returns the index of the page containing the declaration or 0
+     */
+    private Integer probeDocument(PDDocument document) throws IOException {
+        for (int[] range : getProbeRanges(document.getNumberOfPages())) {
+            List<PDFPage> pages = PDFTextExtractionUtil.extractText(document, range[0], range[1]).stream()
+                    .filter(page -> !page.isContentPage()).collect(Collectors.toList());
+            int foundPage = compareString(splitPagesIntoParagraphs(pages));
+            if (foundPage != 0) {
+                return foundPage;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The ranges after the first pages grow, so a declaration in the middle
+     * of a long document does not need one extraction run per few pages
+     * 
+     * @returns the '1' based page ranges to be searched, first the last
+     *          pages, then the first pages and then the rest in document order
+     */
+    private List<int[]> getProbeRanges(int pageCount) {
+        List<int[]> ranges = new ArrayList<>();
+        if (pageCount == 0) {
+            return ranges;
+        }
+        int lastStart = Math.max(1, pageCount - PROBE_PAGE_COUNT + 1);
+        ranges.add(new int[] { lastStart, pageCount });
+        int rangeSize = PROBE_PAGE_COUNT;
+        for (int start = 1; start < lastStart; start += rangeSize, rangeSize *= 2) {
+            ranges.add(new int[] { start, Math.min(start + rangeSize - 1, lastStart - 1) });
+        }
+        return ranges;
+    }
+
     public List<PDFParagraph> splitPagesIntoParagraphs(List<PDFPage> pages) {
         List<PDFParagraph> paragraphs = new ArrayList<>();
         pages.stream().forEach(page -> {
@@ -86,15 +150,30 @@ public class AkademischeAufrichtigkeitserklaerung implements TextanalyzerAlgorit
                 .map(TextPositionSequence::toString).map(String::toLowerCase).collect(Collectors.toList());
     }
 
+    /**
+     * Looks up every word in the dictionary of the hints, without converting
+     * it to a String, and stops as soon as all hints have been seen
+     * 
+     * @returns the index of the page of the first paragraph that contains
+     *          all hints or 0
+     */
     public int compareString(List<PDFParagraph> paragraphs) {
+        int hintCount = hintDictionary.size();
+        boolean[] foundHints = new boolean[hintCount];
         for (PDFParagraph paragraph : paragraphs) {
-            List<String> wordListOfParagraph = new ArrayList<>();
-            paragraph.getLines().stream().forEach(line -> {
-                line.getWords().stream().forEach(word -> {
-                    wordListOfParagraph.add(word.toString().toLowerCase());
-                });
-            });
-            if (aufrichtigkeitserklaerungHints.stream().allMatch(wordListOfParagraph::contains)) {
+            Arrays.fill(foundHints, false);
+            int foundHintCount = 0;
+            for (TextPositionSequence word : paragraph.getWords()) {
+                int hint = hintDictionary.findId(word);
+                if (hint != TokenDictionary.UNKNOWN_TOKEN && !foundHints[hint]) {
+                    foundHints[hint] = true;
+                    foundHintCount++;
+                }
+                if (foundHintCount == hintCount) {
+                    break;
+                }
+            }
+            if (foundHintCount == hintCount) {
                 return paragraph.getFirstLine().getFirstWord().getPageIndex();
             }
         }
@@ -4,34 +4,60 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
-import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.PageLocalTextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 import com.opencsv.CSVReader;
 
 /**
  * Algorithm for finding referenced 'Sources' without an entry in Bibliography
  * 
+ * <p>
+ * Every page records its citations and its candidates for bibliography
+ * entries, the bibliography is only located when the pages are merged. So
+ * only the changed pages of a revision have to be read again. A citation that
+ * is split by a page break is not found.
+ * </p>
+ * 
  * @author Pascal.Schroeder@de.ibm.com
  *
  */
-public class BibliographyAnalyzer implements TextanalyzerAlgorithm {
+public class BibliographyAnalyzer implements PageLocalTextanalyzerAlgorithm<BibliographyAnalyzer.PageCitations> {
     private static final Logger LOGGER = Logger.getLogger(CommonAbbreviationAnalyzer.class.getName());
     private static final String BIBLIOGRAPHY_IDENTIFICATION_LIST_PATH = "src/main/resources/analyzer-conf/bibliography-identifications.csv";
 
+    private static final Pattern NUMERIC_CITATION = Pattern.compile("\\[\\d+\\]");
+    private static final Pattern YEAR = Pattern.compile("(1[5-9]|20)\\d\\d[a-z]?");
+    private static final int MAX_CITATION_LENGTH = 12;
+    private static final Set<String> CITATION_PREFIXES = new HashSet<>(Arrays.asList("vgl", "siehe", "see", "cf"));
+    private static final Set<String> AUTHOR_CONNECTORS = new HashSet<>(
+            Arrays.asList("und", "and", "&", "et", "al", ".", ","));
+    /**
+     * Capitalized words that are often followed by a year in parentheses
+     * without being the name of an author
+     */
+    private static final Set<String> NO_NAMES = new HashSet<>(Arrays.asList("abb", "abbildung", "tab", "tabelle",
+            "kap", "kapitel", "seite", "anhang", "anlage", "quelle", "stand", "version", "ausgabe", "auflage", "jahr",
+            "januar", "februar", "m\u00e4rz", "april", "mai", "juni", "juli", "august", "september", "oktober",
+            "november", "dezember", "figure", "fig", "table", "chapter", "page", "appendix", "source"));
+
     private List<String> bibliographyHints;
 
     public BibliographyAnalyzer() {
@@ -39,105 +65,209 @@ public class BibliographyAnalyzer implements TextanalyzerAlgorithm {
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public PageSelection getPageSelection() {
+        return PageSelection.ALL_PAGES;
+    }
+
+    @Override
+    public List<PageCitations> analyzePage(PDFPage page, TextanalyzerContext context) {
+        return Collections.singletonList(new PageCitations(page));
+    }
+
+    @Override
+    public List<Finding> mergePageResults(List<PageCitations> pages) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
-        try {
-            pages = PDFTextExtractionUtil.extractText(doc);
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Could not strip text from document", e);
+        int bibliographyPage = findBibliographyPage(pages);
+        if (bibliographyPage >= 0) {
+            CitationIndex citationIndex = new CitationIndex(pages, bibliographyPage);
+            findings.addAll(getReferencesWithoutBibliographyEntry(citationIndex));
+            findings.addAll(getReferencedBibliographyEntries(citationIndex));
         }
-        findings.addAll(getReferencesWithoutBibliographyEntry(doc, pages));
-        findings.addAll(getReferencedBibliographyEntries(doc, pages));
         if (findings.isEmpty()) {
             findings.add(new CommentaryFinding("No bibliography found", this.getUIName(), 0, 0));
         }
         return findings;
     }
 
-    private List<Finding> getReferencesWithoutBibliographyEntry(PDDocument doc, List<PDFPage> pages) {
-        return compareReferenceWithBibliographyEntries(doc, pages,
-                this::checkIfReferencesAreMarkedInBibliographyReferences);
+    /**
+     * Returns the last page whose first word contains a bibliography hint.
+     * The bibliography is usually at the end of a document, while hints
+     * like 'Autor' may also start earlier pages.
+     */
+    private int findBibliographyPage(List<PageCitations> pages) {
+        for (int page = pages.size() - 1; page >= 0; page--) {
+            String firstWord = pages.get(page).firstWord;
+            if (firstWord != null && bibliographyHints.stream().anyMatch(firstWord::contains)) {
+                return page;
+            }
+        }
+        return -1;
     }
 
-    private List<Finding> getReferencedBibliographyEntries(PDDocument doc, List<PDFPage> pages) {
-        return compareReferenceWithBibliographyEntries(doc, pages, this::checkIfBibliographyEntriesHaveReferences);
+    private List<Finding> getReferencesWithoutBibliographyEntry(CitationIndex citationIndex) {
+        List<Finding> findings = new ArrayList<>();
+        citationIndex.inTextCitations.forEach((key, citations) -> {
+            if (!citationIndex.bibliographyEntries.containsKey(key)) {
+                citations.forEach(citation -> findings.add(new TextFinding(citation, TextFindingType.BIBLIOGRAPHY)));
+            }
+        });
+        return findings;
     }
 
-    private List<Finding> compareReferenceWithBibliographyEntries(PDDocument doc, List<PDFPage> pages,
-            BiFunction<List<TextPositionSequence>, List<TextPositionSequence>, List<Finding>> method) {
+    private List<Finding> getReferencedBibliographyEntries(CitationIndex citationIndex) {
         List<Finding> findings = new ArrayList<>();
-        pages.stream().forEach(page -> {
-            TextPositionSequence firstWordOfPage = page.getFirstWord();
-            if (bibliographyHints.stream().anyMatch(firstWordOfPage.toString().toLowerCase()::contains)) {
-                List<PDFPage> contentPages = getAllInTextReferences(pages, firstWordOfPage.getPageIndex());
-                List<PDFPage> bibliographyPages = getAllBibliographyEntries(pages, firstWordOfPage.getPageIndex());
-                List<TextPositionSequence> bibliographyReferences = getBibliographyReference(contentPages);
-                List<TextPositionSequence> bibliographyEntries = getBibliographyReference(bibliographyPages);
-                findings.addAll(method.apply(bibliographyReferences, bibliographyEntries));
+        citationIndex.bibliographyEntries.forEach((key, entries) -> {
+            if (citationIndex.inTextCitations.containsKey(key)) {
+                entries.forEach(entry -> findings.add(new TextFinding(entry, TextFindingType.POSITIVE_BIBLIOGRAPHY)));
             }
         });
         return findings;
     }
 
-    private List<PDFPage> getAllInTextReferences(List<PDFPage> pages, int bibliographyPageIndex) {
-        return pages.stream().filter(page -> page.getPageIndex() < bibliographyPageIndex).collect(Collectors.toList());
-    }
+    /**
+     * This class indexes the citations of the whole document
+     *
+     * <p>
+     * In-text citations are taken from the pages before the bibliography,
+     * entries from the bibliography on.
+     * </p>
+     */
+    private static class CitationIndex {
+        private final Map<String, List<TextPositionSequence>> inTextCitations = new LinkedHashMap<>();
+        private final Map<String, List<TextPositionSequence>> bibliographyEntries = new LinkedHashMap<>();
 
-    private List<PDFPage> getAllBibliographyEntries(List<PDFPage> pages, int bibliographyPageIndex) {
-        return pages.stream().filter(page -> page.getPageIndex() >= bibliographyPageIndex).collect(Collectors.toList());
-    }
+        CitationIndex(List<PageCitations> pages, int bibliographyPage) {
+            for (int page = 0; page < pages.size(); page++) {
+                if (page < bibliographyPage) {
+                    addAll(inTextCitations, pages.get(page).inTextCitations);
+                } else {
+                    addAll(bibliographyEntries, pages.get(page).bibliographyEntries);
+                }
+            }
+        }
 
-    // Reads all references out of given list of PDFPages
-    private List<TextPositionSequence> getBibliographyReference(List<PDFPage> pageList) {
-        List<TextPositionSequence> wordsContainedInPageList = PDFTextExtractionUtil.extractWords(pageList);
-        List<TextPositionSequence> foundReferences = new ArrayList<>();
-        wordsContainedInPageList.stream().filter(word -> containsBibliographyReference(word.toString()))
-                .forEach(word -> {
-                    foundReferences.add(word);
-                });
-        return foundReferences;
+        private static void addAll(Map<String, List<TextPositionSequence>> citations,
+                Map<String, List<TextPositionSequence>> pageCitations) {
+            pageCitations.forEach((key, words) -> citations.computeIfAbsent(key, k -> new ArrayList<>()).addAll(words));
+        }
     }
 
-    private List<Finding> checkIfReferencesAreMarkedInBibliographyReferences(
-            List<TextPositionSequence> bibliographyReferences, List<TextPositionSequence> bibliographyEntries) {
-        List<Finding> findings = new ArrayList<>();
-        bibliographyReferences.stream().forEach(bibliographyReference -> {
-            List<String> references = readReferenceOutOfWord(bibliographyReference);
-            references.stream().forEach(reference -> {
-                if (!bibliographyEntries.toString().contains(reference)) {
-                    findings.add(new TextFinding(bibliographyReference, TextFindingType.BIBLIOGRAPHY));
+    /**
+     * The citations of a single page, it is only passed from
+     * {@link #analyzePage} to {@link #mergePageResults}
+     *
+     * <p>
+     * Whether the page belongs to the bibliography is not known yet, so it is
+     * read both ways. Citations are keyed by the cited source: numeric
+     * citations like '[12]' by their number in brackets, author-year
+     * citations like '(Mueller 2019)' by the lower case name of the first
+     * author and the year. An author-year entry is a line of the bibliography
+     * that starts with a name and contains a year.
+     * </p>
+     */
+    static final class PageCitations {
+        private final String firstWord;
+        private final Map<String, List<TextPositionSequence>> inTextCitations = new LinkedHashMap<>();
+        private final Map<String, List<TextPositionSequence>> bibliographyEntries = new LinkedHashMap<>();
+
+        PageCitations(PDFPage page) {
+            List<TextPositionSequence> words = page.getWords();
+            firstWord = words.isEmpty() ? null : words.get(0).toString().toLowerCase();
+            for (int i = 0; i < words.size(); i++) {
+                TextPositionSequence word = words.get(i);
+                addNumericCitations(word, inTextCitations);
+                if ("(".contentEquals(word)) {
+                    addAuthorYearCitations(words, i + 1);
                 }
-            });
-        });
-        return findings;
-    }
+            }
+            for (PDFLine line : page.getLines()) {
+                line.getWords().forEach(word -> addNumericCitations(word, bibliographyEntries));
+                addAuthorYearEntry(line.getWords());
+            }
+        }
 
-    private List<Finding> checkIfBibliographyEntriesHaveReferences(List<TextPositionSequence> bibliographyReferences,
-            List<TextPositionSequence> bibliographyEntries) {
-        List<Finding> findings = new ArrayList<>();
-        bibliographyEntries.stream().forEach(bibliographyEntry -> {
-            List<String> entries = readReferenceOutOfWord(bibliographyEntry);
-            entries.stream().forEach(entry -> {
-                if (bibliographyReferences.toString().contains(entry)) {
-                    findings.add(new TextFinding(bibliographyEntry, TextFindingType.POSITIVE_BIBLIOGRAPHY));
+        private static void addNumericCitations(TextPositionSequence word,
+                Map<String, List<TextPositionSequence>> citations) {
+            if (!word.contains("[")) {
+                return;
+            }
+            Matcher matcher = NUMERIC_CITATION.matcher(word);
+            while (matcher.find()) {
+                add(citations, matcher.group(), word);
+            }
+        }
+
+        /**
+         * Reads citations like '(Mueller 2019)', '(vgl. Meier und Schulz
+         * 2010a)' or '(Meier et al. 2010; Schulz 2012)' starting after the
+         * opening brace. Only further names and connectors like 'und' may
+         * stand between a name and its year, and every year has to be
+         * followed by ')' or ';'. So remarks like '(Stand: Mai 2019)' are
+         * no citations.
+         */
+        private void addAuthorYearCitations(List<TextPositionSequence> words, int start) {
+            TextPositionSequence author = null;
+            int end = Math.min(words.size(), start + MAX_CITATION_LENGTH);
+            for (int i = skipCitationPrefix(words, start, end); i < end; i++) {
+                TextPositionSequence word = words.get(i);
+                if (author == null) {
+                    if (!isName(word)) {
+                        return;
+                    }
+                    author = word;
+                } else if (YEAR.matcher(word).matches()) {
+                    if (i + 1 == words.size() || !isCitationEnd(words.get(i + 1))) {
+                        return;
+                    }
+                    add(inTextCitations, toAuthorYearKey(author, word), author);
+                    author = null;
+                    if (")".contentEquals(words.get(++i))) {
+                        return;
+                    }
+                } else if (!isName(word) && !AUTHOR_CONNECTORS.contains(word.toString())) {
+                    return;
                 }
-            });
-        });
-        return findings;
-    }
+            }
+        }
+
+        private static int skipCitationPrefix(List<TextPositionSequence> words, int start, int end) {
+            int i = start;
+            if (i < end && CITATION_PREFIXES.contains(words.get(i).toString().toLowerCase())) {
+                i++;
+                if (i < end && ".".contentEquals(words.get(i))) {
+                    i++;
+                }
+            }
+            return i;
+        }
+
+        private static boolean isCitationEnd(TextPositionSequence word) {
+            return ")".contentEquals(word) || ";".contentEquals(word);
+        }
+
+        private void addAuthorYearEntry(List<TextPositionSequence> line) {
+            if (line.isEmpty() || !isName(line.get(0))) {
+                return;
+            }
+            line.stream().filter(word -> YEAR.matcher(word).matches()).findFirst()
+                    .ifPresent(year -> add(bibliographyEntries, toAuthorYearKey(line.get(0), year), line.get(0)));
+        }
 
-    private List<String> readReferenceOutOfWord(TextPositionSequence wordWithReference) {
-        List<String> bibliographyReferences = new ArrayList<>();
-        String referenceString = wordWithReference.toString();
-        while (containsBibliographyReference(referenceString)) {
-            int startIndex = referenceString.toString().indexOf("[");
-            int endIndex = referenceString.toString().indexOf("]") + 1;
-            bibliographyReferences.add(referenceString.substring(startIndex, endIndex));
+        private static boolean isName(TextPositionSequence word) {
+            if (word.length() < 2 || !Character.isUpperCase(word.charAt(0))) {
+                return false;
+            }
+            return word.chars().allMatch(Character::isLetter) && !NO_NAMES.contains(word.toString().toLowerCase());
+        }
 
-            referenceString = referenceString.substring(endIndex, referenceString.length());
+        private static String toAuthorYearKey(TextPositionSequence author, TextPositionSequence year) {
+            return author.toString().toLowerCase() + " " + year;
+        }
+
+        private static void add(Map<String, List<TextPositionSequence>> citations, String key,
+                TextPositionSequence word) {
+            citations.computeIfAbsent(key, k -> new ArrayList<>()).add(word);
         }
-        return bibliographyReferences;
     }
 
     private List<String> readBibliographyIdentificationListFile(String bibliographyIdentificationListPath) {
@@ -157,10 +287,6 @@ public class BibliographyAnalyzer implements TextanalyzerAlgorithm {
         return bibliographyIdentificationList;
     }
 
-    private boolean containsBibliographyReference(String string) {
-        return string.matches(".*\\[(\\d+)\\].*");
-    }
-
     @Override
     public String getUIName() {
         return "Bibliography Analyzer";
@@ -4,18 +4,15 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
@@ -24,9 +21,9 @@ import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
+import com.noxag.newnox.textanalyzer.util.PhraseMatcher;
 import com.opencsv.CSVReader;
 
 /**
@@ -39,28 +36,27 @@ import com.opencsv.CSVReader;
 public class CommonAbbreviationAnalyzer implements TextanalyzerAlgorithm {
     private static final Logger LOGGER = Logger.getLogger(CommonAbbreviationAnalyzer.class.getName());
     private static final String ABBREVIATION_LIST_PATH = "src/main/resources/analyzer-conf/common-abbreviation-list.csv";
-    private List<String> abbreviationList;
+    private PhraseMatcher abbreviationMatcher;
 
     public CommonAbbreviationAnalyzer() {
         this(ABBREVIATION_LIST_PATH);
     }
 
     public CommonAbbreviationAnalyzer(String abbreviationListPath) {
-        this.abbreviationList = readAbreviationListFile(abbreviationListPath);
+        this.abbreviationMatcher = new PhraseMatcher(readAbreviationListFile(abbreviationListPath).stream()
+                .map(PDFTextAnalyzerUtil::splitAbbreviation).collect(Collectors.toList()));
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
         List<TextPositionSequence> words = new ArrayList<>();
         try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
-            words = PDFTextExtractionUtil.extractWords(pages);
+            words = context.getReducedContentIndex().getWords();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not strip text from document", e);
         }
-        List<PDFLine> matches = findMatches(words, abbreviationList);
+        List<PDFLine> matches = findMatches(words);
         if (matches.isEmpty()) {
             findings.add(new CommentaryFinding("No abbreviations found", this.getUIName(), 0, 0));
         } else {
@@ -75,60 +71,9 @@ public class CommonAbbreviationAnalyzer implements TextanalyzerAlgorithm {
                 .collect(Collectors.toList());
     }
 
-    private List<PDFLine> findMatches(List<TextPositionSequence> words, List<String> abbreviationList) {
-        List<PDFLine> matches = new ArrayList<>();
-        ListIterator<TextPositionSequence> wordsIterator = words.stream()
-                .collect(Collectors.toCollection(LinkedList::new)).listIterator();
-
-        while (wordsIterator.hasNext()) {
-            TextPositionSequence currentWord = wordsIterator.next();
-
-            abbreviationList.stream().forEach(abbreviation -> {
-                List<String> abbreviationParts = divideAbbreviation(abbreviation);
-                List<TextPositionSequence> wordsToCompare = prependTo(currentWord,
-                        getNextWords(wordsIterator, abbreviationParts.size() - 1));
-
-                List<String> stringsToCompare = wordsToCompare.stream().map(TextPositionSequence::toString)
-                        .map(String::toLowerCase).collect(Collectors.toList());
-                if (abbreviationParts.equals(stringsToCompare)) {
-                    matches.add(new PDFLine(wordsToCompare));
-                }
-            });
-        }
-
-        return matches;
-    }
-
-    private List<TextPositionSequence> prependTo(TextPositionSequence currentWord,
-            List<TextPositionSequence> nextWords) {
-        List<TextPositionSequence> allWords = new ArrayList<>();
-        allWords.add(currentWord);
-        allWords.addAll(nextWords);
-        return allWords;
-    }
-
-    private List<String> divideAbbreviation(String abbreviation) {
-        List<String> words = new ArrayList<>();
-        List<String> abbreviationWithoutDot = Arrays.asList(abbreviation.split("\\."));
-        abbreviationWithoutDot.forEach(abbreviationPart -> {
-            words.add(abbreviationPart);
-            words.add(".");
-        });
-        return words;
-    }
-
-    private List<TextPositionSequence> getNextWords(ListIterator<TextPositionSequence> wordsIterator,
-            int abbreviationWordCount) {
-        List<TextPositionSequence> nextWords = new ArrayList<>();
-        for (int i = 0; i < abbreviationWordCount; i++) {
-            if (wordsIterator.hasNext()) {
-                nextWords.add(wordsIterator.next());
-            }
-        }
-        for (int i = 0; i < nextWords.size(); i++) {
-            wordsIterator.previous();
-        }
-        return nextWords;
+    private List<PDFLine> findMatches(List<TextPositionSequence> words) {
+        return abbreviationMatcher.findMatches(words).stream().map(match -> new PDFLine(match.getWords()))
+                .collect(Collectors.toList());
     }
 
     private Finding generateStatisticFinding(List<PDFLine> matches) {
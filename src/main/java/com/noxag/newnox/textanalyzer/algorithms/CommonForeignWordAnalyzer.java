@@ -4,18 +4,15 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
@@ -24,35 +21,35 @@ import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+import com.noxag.newnox.textanalyzer.util.PhraseMatcher;
 import com.opencsv.CSVReader;
 
 public class CommonForeignWordAnalyzer implements TextanalyzerAlgorithm {
 
     private static final Logger LOGGER = Logger.getLogger(CommonForeignWordAnalyzer.class.getName());
     private static final String FOREIGN_WORDS_PATH = "src/main/resources/analyzer-conf/common-foreign-words.csv";
-    private List<String> foreignWords;
+    private PhraseMatcher foreignWordMatcher;
 
     public CommonForeignWordAnalyzer() {
         this(FOREIGN_WORDS_PATH);
     }
 
     public CommonForeignWordAnalyzer(String foreignWordsPath) {
-        this.foreignWords = readForeignWordFile(foreignWordsPath);
+        this.foreignWordMatcher = new PhraseMatcher(readForeignWordFile(foreignWordsPath).stream()
+                .map(phrase -> Arrays.asList(phrase.split(" "))).collect(Collectors.toList()));
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
+        List<TextPositionSequence> words = new ArrayList<>();
         try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
+            words = context.getReducedContentIndex().getWords();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not extract text from document", e);
         }
-        List<PDFLine> matches = findMatches(PDFTextExtractionUtil.extractWords(pages), foreignWords);
+        List<PDFLine> matches = findMatches(words);
         if (matches.isEmpty()) {
             findings.add(new CommentaryFinding("No foreign words found", this.getUIName(), 0, 0));
         } else {
@@ -62,50 +59,9 @@ public class CommonForeignWordAnalyzer implements TextanalyzerAlgorithm {
         return findings;
     }
 
-    private List<PDFLine> findMatches(List<TextPositionSequence> words, List<String> foreignWordPhrases) {
-        List<PDFLine> matches = new ArrayList<>();
-        ListIterator<TextPositionSequence> wordsIterator = words.stream()
-                .collect(Collectors.toCollection(LinkedList::new)).listIterator();
-
-        while (wordsIterator.hasNext()) {
-            TextPositionSequence currentWord = wordsIterator.next();
-
-            foreignWordPhrases.stream().forEach(phrase -> {
-                List<String> foreignWordPhrase = Arrays.asList(phrase.split(" "));
-                List<TextPositionSequence> wordsToCompare = prependTo(currentWord,
-                        getNextWords(wordsIterator, foreignWordPhrase.size() - 1));
-
-                List<String> stringsToCompare = wordsToCompare.stream().map(TextPositionSequence::toString)
-                        .map(String::toLowerCase).collect(Collectors.toList());
-                if (foreignWordPhrase.equals(stringsToCompare)) {
-                    matches.add(new PDFLine(wordsToCompare));
-                }
-            });
-        }
-
-        return matches;
-    }
-
-    private List<TextPositionSequence> prependTo(TextPositionSequence currentWord,
-            List<TextPositionSequence> nextWords) {
-        List<TextPositionSequence> allWords = new ArrayList<>();
-        allWords.add(currentWord);
-        allWords.addAll(nextWords);
-        return allWords;
-    }
-
-    private List<TextPositionSequence> getNextWords(ListIterator<TextPositionSequence> wordsIterator,
-            int abbreviationWordCount) {
-        List<TextPositionSequence> nextWords = new ArrayList<>();
-        for (int i = 0; i < abbreviationWordCount; i++) {
-            if (wordsIterator.hasNext()) {
-                nextWords.add(wordsIterator.next());
-            }
-        }
-        for (int i = 0; i < nextWords.size(); i++) {
-            wordsIterator.previous();
-        }
-        return nextWords;
+    private List<PDFLine> findMatches(List<TextPositionSequence> words) {
+        return foreignWordMatcher.findMatches(words).stream().map(match -> new PDFLine(match.getWords()))
+                .collect(Collectors.toList());
     }
 
     private List<? extends Finding> generateTextFindings(List<PDFLine> textPositions) {
@@ -2,26 +2,21 @@ package com.noxag.newnox.textanalyzer.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 
 /**
  * 
@@ -35,14 +30,13 @@ public class FontAnalyzer implements TextanalyzerAlgorithm {
     private static final Logger LOGGER = Logger.getLogger(CommonAbbreviationAnalyzer.class.getName());
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
         List<TextPositionSequence> contentWords = new ArrayList<>();
 
         try {
-            List<PDFPage> contentPages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
-            contentWords = PDFTextExtractionUtil.extractWords(contentPages);
-            contentWords = contentWords.stream().filter(TextPositionSequence::isNotBulletPoint)
+            contentWords = context.getReducedContentIndex().getWords().stream()
+                    .filter(TextPositionSequence::isNotBulletPoint)
                     .collect(Collectors.toList());
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not strip text from document", e);
@@ -56,96 +50,99 @@ public class FontAnalyzer implements TextanalyzerAlgorithm {
     }
 
     private List<Finding> getWordsWithCorruptFontSize(List<TextPositionSequence> contentWords) {
-        Function<TextPositionSequence, Float> fontSizeFunction = (x) -> x.getFirstTextPosition().getFontSize();
+        ToIntFunction<TextPositionSequence> fontSizeFunction = TextPositionSequence::getFontSizeBucket;
         return getFontFindings(contentWords, fontSizeFunction, TextFindingType.FONT_SIZE);
     }
 
     private List<Finding> getWordsWithCorruptFontType(List<TextPositionSequence> contentWords) {
-        Function<TextPositionSequence, String> fontTypeFunction = (x) -> x.getFirstTextPosition().getFont()
-                .getFontDescriptor().getFontName();
+        ToIntFunction<TextPositionSequence> fontTypeFunction = TextPositionSequence::getFontId;
         return getFontFindings(contentWords, fontTypeFunction, TextFindingType.FONT_TYPE);
     }
 
-    private <T> List<Finding> getFontFindings(List<TextPositionSequence> contentWords,
-            Function<TextPositionSequence, T> fontFunction, TextFindingType findingType) {
-        Map<T, List<TextPositionSequence>> wordFontSizeMap = mapFont(contentWords, fontFunction);
-        List<Entry<T, List<TextPositionSequence>>> wordFontSizeEntryList = sortList(wordFontSizeMap);
-
-        return generateTextFindings(getAbnormalitiesOfList(wordFontSizeEntryList), findingType);
-    }
-
-    private <T> Map<T, List<TextPositionSequence>> mapFont(List<TextPositionSequence> contentWords,
-            Function<TextPositionSequence, T> classifier) {
-
-        Map<T, List<TextPositionSequence>> wordSizeMap = contentWords.stream()
-                .collect(Collectors.groupingBy(classifier));
-
-        return wordSizeMap;
-    }
-
-    private <T> List<Entry<T, List<TextPositionSequence>>> sortList(Map<T, List<TextPositionSequence>> wordSizeMap) {
-
-        List<Entry<T, List<TextPositionSequence>>> wordSizeEntryList = wordSizeMap.entrySet().stream()
-                .collect(Collectors.toList());
-
-        wordSizeEntryList.sort(Comparator.comparing(entry -> {
-            return entry.getValue().size();
-        }));
-
-        return wordSizeEntryList;
+    private List<Finding> getFontFindings(List<TextPositionSequence> contentWords,
+            ToIntFunction<TextPositionSequence> fontFunction, TextFindingType findingType) {
+        return generateTextFindings(getAbnormalities(contentWords, fontFunction), findingType);
     }
 
-    private <T> List<TextPositionSequence> getAbnormalitiesOfList(
-            List<Entry<T, List<TextPositionSequence>>> wordSizeEntryList) {
-        List<TextPositionSequence> abnormalityList = new ArrayList<>();
+    /**
+     * Returns the words of all fonts except the most frequent one. The fonts
+     * are ordered by their frequency, the words of each font keep their order.
+     */
+    private List<TextPositionSequence> getAbnormalities(List<TextPositionSequence> contentWords,
+            ToIntFunction<TextPositionSequence> fontFunction) {
+        if (contentWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int[] fonts = new int[contentWords.size()];
+        int minFont = Integer.MAX_VALUE;
+        int maxFont = Integer.MIN_VALUE;
+        for (int i = 0; i < fonts.length; i++) {
+            fonts[i] = fontFunction.applyAsInt(contentWords.get(i));
+            minFont = Math.min(minFont, fonts[i]);
+            maxFont = Math.max(maxFont, fonts[i]);
+        }
+        int[] histogram = new int[maxFont - minFont + 1];
+        for (int i = 0; i < fonts.length; i++) {
+            fonts[i] -= minFont;
+            histogram[fonts[i]]++;
+        }
 
-        wordSizeEntryList.stream().limit(wordSizeEntryList.size() - 1).forEach(entry -> {
-            entry.getValue().stream().forEach(word -> {
-                abnormalityList.add(word);
-            });
-        });
+        List<Integer> usedFonts = new ArrayList<>();
+        for (int font = 0; font < histogram.length; font++) {
+            if (histogram[font] > 0) {
+                usedFonts.add(font);
+            }
+        }
+        usedFonts.sort(Comparator.comparingInt(font -> histogram[font]));
+
+        // the words are sorted by the rank of their font, the words of the
+        // most frequent font have the last rank and are left out
+        int normalRank = usedFonts.size() - 1;
+        int[] rankOfFont = new int[histogram.length];
+        int[] rankStart = new int[usedFonts.size()];
+        for (int rank = 0; rank < normalRank; rank++) {
+            rankOfFont[usedFonts.get(rank)] = rank;
+            rankStart[rank + 1] = rankStart[rank] + histogram[usedFonts.get(rank)];
+        }
+        rankOfFont[usedFonts.get(normalRank)] = normalRank;
 
-        return abnormalityList;
+        TextPositionSequence[] abnormalities = new TextPositionSequence[rankStart[normalRank]];
+        for (int i = 0; i < fonts.length; i++) {
+            int rank = rankOfFont[fonts[i]];
+            if (rank != normalRank) {
+                abnormalities[rankStart[rank]++] = contentWords.get(i);
+            }
+        }
+        return new ArrayList<>(Arrays.asList(abnormalities));
     }
 
     private List<Finding> generateTextFindings(List<TextPositionSequence> textPositions, TextFindingType findingType) {
         List<Finding> textFindings = new ArrayList<>();
-        textPositions = combineIfSameLine(textPositions);
-        textPositions.stream().forEach(textPosition -> textFindings.add(new TextFinding(textPosition, findingType)));
+        combineIfSameLine(textPositions)
+                .forEach(textPosition -> textFindings.add(new TextFinding(textPosition, findingType)));
         return textFindings;
     }
 
+    /**
+     * Joins every run of adjacent words on the same line to a single word in
+     * a single sweep, so each run becomes a single finding
+     */
     private List<TextPositionSequence> combineIfSameLine(List<TextPositionSequence> textPositions) {
         List<TextPositionSequence> words = new ArrayList<>();
-        // if second word same posY as firstWord --> return combination
-        // else return first word and combine second and third
-        if (textPositions.isEmpty()) {
-            return textPositions;
-        }
-        TextPositionSequence firstWord = textPositions.get(0);
-        if (textPositions.size() == 1) {
-            words.add(firstWord);
-            return words;
-        }
-        TextPositionSequence secondWord = textPositions.get(1);
-        @SuppressWarnings("unused")
-        float res = Math.abs(firstWord.getFirstTextPosition().getY() - secondWord.getFirstTextPosition().getY());
-        if (firstWord.getPageIndex() == secondWord.getPageIndex()
-                && Math.abs(firstWord.getFirstTextPosition().getY() - secondWord.getFirstTextPosition().getY()) <= 1
-                && Math.abs(firstWord.getLastTextPosition().getX() - secondWord.getFirstTextPosition().getX()) <= 15) {
-            TextPositionSequence newFirstWord = new PDFLine(firstWord, secondWord).getTextPositionSequence();
-            if (textPositions.size() > 2) {
-                List<TextPositionSequence> newTextPositions = new ArrayList<>();
-                newTextPositions.add(newFirstWord);
-                newTextPositions.addAll(textPositions.subList(2, textPositions.size()));
-                words.addAll(combineIfSameLine(newTextPositions));
+        int runStart = 0;
+        for (int i = 1; i <= textPositions.size(); i++) {
+            if (i == textPositions.size() || !isSameLine(textPositions.get(i - 1), textPositions.get(i))) {
+                List<TextPositionSequence> run = textPositions.subList(runStart, i);
+                words.add(run.size() == 1 ? run.get(0) : TextPositionSequence.concat(run));
+                runStart = i;
             }
-            return words;
-        } else {
-            words.add(firstWord);
-            words.addAll(combineIfSameLine(textPositions.subList(1, textPositions.size())));
-            return words;
         }
+        return words;
+    }
+
+    private boolean isSameLine(TextPositionSequence word, TextPositionSequence nextWord) {
+        return word.getPageIndex() == nextWord.getPageIndex() && Math.abs(word.getY() - nextWord.getY()) <= 1
+                && Math.abs(word.getLastCharacter().getX() - nextWord.getX()) <= 15;
     }
 
     @Override
@@ -1,74 +1,203 @@
 package com.noxag.newnox.textanalyzer.algorithms;
 
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.TextPosition;
-
-import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.PageLocalTextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
+import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
+import com.noxag.newnox.textanalyzer.data.StatisticFinding;
+import com.noxag.newnox.textanalyzer.data.StatisticFinding.StatisticFindingType;
+import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 
-public class LineSpacingAnalyzer implements TextanalyzerAlgorithm {
-    private static final Logger LOGGER = Logger.getLogger(WordingAnalyzer.class.getName());
+/**
+ * This class finds lines whose distance to the following line deviates from
+ * the dominant line spacing of the document
+ *
+ * <p>
+ * The spacing is measured from baseline to baseline between consecutive
+ * lines of a page, in buckets of a tenth of a point. Gaps of at least twice
+ * the expected spacing are taken as intended, like blank lines. Every page
+ * only records its spacings, the histogram of the whole document and the
+ * deviating lines are determined when the pages are merged. A page whose
+ * own dominant spacing deviates is reported once instead of marking every
+ * line of it. The statistic counts the spacings in bins of a point around
+ * the dominant spacing.
+ * </p>
+ *
+ */
+public class LineSpacingAnalyzer implements PageLocalTextanalyzerAlgorithm<LineSpacingAnalyzer.PageLineSpacings> {
+    private static final int BUCKETS_PER_POINT = 10;
+    private static final int TOLERATED_DEVIATION = 5;
+    private static final int MAX_STATISTIC_DATA_FINDINGS = 15;
+
+    /**
+     * The spacings of a single page, it is only passed from
+     * {@link #analyzePage} to {@link #mergePageResults}
+     */
+    static final class PageLineSpacings {
+        private final int pageIndex;
+        private final int[] spacings;
+        private final TextPositionSequence[] upperLines;
+        private final TextPositionSequence[] lowerLines;
+
+        PageLineSpacings(int pageIndex, int[] spacings, TextPositionSequence[] upperLines,
+                TextPositionSequence[] lowerLines) {
+            this.pageIndex = pageIndex;
+            this.spacings = spacings;
+            this.upperLines = upperLines;
+            this.lowerLines = lowerLines;
+        }
+
+        TextPositionSequence getLinePair(int pair) {
+            return TextPositionSequence.concat(upperLines[pair].getFirstCharacter(),
+                    lowerLines[pair].getLastCharacter());
+        }
+    }
+
+    @Override
+    public PageSelection getPageSelection() {
+        return PageSelection.ALL_PAGES;
+    }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<PageLineSpacings> analyzePage(PDFPage page, TextanalyzerContext context) {
+        List<PDFLine> lines = page.getLines();
+        if (lines.size() < 2) {
+            return Collections.emptyList();
+        }
+        float[] baselines = new float[lines.size()];
+        for (int line = 0; line < baselines.length; line++) {
+            baselines[line] = lines.get(line).getFirstWord().getY();
+        }
+
+        int[] spacings = new int[lines.size() - 1];
+        TextPositionSequence[] upperLines = new TextPositionSequence[spacings.length];
+        TextPositionSequence[] lowerLines = new TextPositionSequence[spacings.length];
+        int pairCount = 0;
+        for (int line = 0; line + 1 < baselines.length; line++) {
+            int spacing = Math.round((baselines[line] - baselines[line + 1]) * BUCKETS_PER_POINT);
+            // lines next to each other, like in columns, are no pairs
+            if (spacing > 0) {
+                spacings[pairCount] = spacing;
+                upperLines[pairCount] = lines.get(line).getFirstWord();
+                lowerLines[pairCount] = lines.get(line + 1).getLastWord();
+                pairCount++;
+            }
+        }
+        if (pairCount == 0) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new PageLineSpacings(upperLines[0].getPageIndex(),
+                Arrays.copyOf(spacings, pairCount), Arrays.copyOf(upperLines, pairCount),
+                Arrays.copyOf(lowerLines, pairCount)));
+    }
+
+    @Override
+    public List<? extends Finding> mergePageResults(List<PageLineSpacings> pages) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
-        try {
-            pages = PDFTextExtractionUtil.extractText(doc);
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Could not extract text from document", e);
+        int[] documentSpacings = pages.stream().flatMapToInt(page -> Arrays.stream(page.spacings)).sorted()
+                .toArray();
+        if (documentSpacings.length == 0) {
+            findings.add(new CommentaryFinding("No line spacings found", this.getUIName(), 0, 0));
+            return findings;
+        }
+        int dominantSpacing = getDominantSpacing(documentSpacings);
+        for (PageLineSpacings page : pages) {
+            int expectedSpacing = dominantSpacing;
+            int pageSpacing = getDominantSpacing(Arrays.stream(page.spacings).sorted().toArray());
+            if (isDeviating(pageSpacing, dominantSpacing)) {
+                findings.add(new CommentaryFinding("Line spacing of the page deviates from the document",
+                        this.getUIName(), page.pageIndex, 0));
+                expectedSpacing = pageSpacing;
+            }
+            for (int pair = 0; pair < page.spacings.length; pair++) {
+                if (isDeviating(page.spacings[pair], expectedSpacing)) {
+                    findings.add(new TextFinding(page.getLinePair(pair), TextFindingType.LINE_SPACING));
+                }
+            }
+        }
+        if (findings.isEmpty()) {
+            findings.add(new CommentaryFinding("No line spacing deviations found", this.getUIName(), 0, 0));
         }
-        List<TextPositionSequence> matches = getLinespacings(pages);
-        findings.addAll(generateTextFindings(matches));
+        findings.add(generateStatisticFinding(documentSpacings, dominantSpacing));
         return findings;
     }
 
-    private List<TextPositionSequence> getLinespacings(List<PDFPage> pages) {
-        List<TextPositionSequence> linespacings = new ArrayList<>();
-        List<PDFLine> lines = PDFTextExtractionUtil.extractLines(pages);
-        ListIterator<PDFLine> lineIterator = lines.stream().collect(Collectors.toCollection(LinkedList::new))
-                .listIterator();
-
-        TextPositionSequence currentLineWord;
-        TextPositionSequence nextLineWord;
-        while (lineIterator.hasNext()) {
-            currentLineWord = lineIterator.next().getFirstWord();
-            if (lineIterator.hasNext()) {
-                nextLineWord = lineIterator.next().getLastWord();
-                lineIterator.previous();
-            } else {
-                nextLineWord = currentLineWord;
+    private boolean isDeviating(int spacing, int expectedSpacing) {
+        return Math.abs(spacing - expectedSpacing) > TOLERATED_DEVIATION && spacing < 2 * expectedSpacing;
+    }
+
+    /**
+     * @param sortedSpacings
+     *            the spacings in ascending order
+     * @returns the most frequent spacing, the smallest one if several are
+     *          equally frequent
+     */
+    private int getDominantSpacing(int[] sortedSpacings) {
+        int dominantSpacing = sortedSpacings[0];
+        int dominantCount = 0;
+        for (int start = 0, end = 0; start < sortedSpacings.length; start = end) {
+            while (end < sortedSpacings.length && sortedSpacings[end] == sortedSpacings[start]) {
+                end++;
             }
-            if (nextLineWord.getPageIndex() == currentLineWord.getPageIndex()) {
-                List<TextPosition> textPositions = new ArrayList<>();
-                textPositions.add(currentLineWord.getFirstTextPosition());
-                textPositions.add(nextLineWord.getLastTextPosition());
-                linespacings.add(new TextPositionSequence(textPositions, currentLineWord.getPageIndex()));
+            if (end - start > dominantCount) {
+                dominantSpacing = sortedSpacings[start];
+                dominantCount = end - start;
             }
         }
-        return linespacings;
+        return dominantSpacing;
     }
 
-    private List<? extends Finding> generateTextFindings(List<TextPositionSequence> textPositions) {
-        List<TextFinding> textFindings = new ArrayList<>();
-        textPositions.stream()
-                .forEach(textPosition -> textFindings.add(new TextFinding(textPosition, TextFindingType.LINE_SPACING)));
-        return textFindings;
+    /**
+     * The middle bin holds the spacings within the tolerated deviation, the
+     * bins next to it one point each. The outermost bins also take all
+     * spacings beyond them, so there are at most
+     * {@link #MAX_STATISTIC_DATA_FINDINGS} bars. Intended gaps are left out.
+     */
+    private Finding generateStatisticFinding(int[] spacings, int dominantSpacing) {
+        int maxBin = MAX_STATISTIC_DATA_FINDINGS / 2;
+        int[] binCounts = new int[2 * maxBin + 1];
+        for (int spacing : spacings) {
+            if (spacing < 2 * dominantSpacing) {
+                binCounts[maxBin + getBin(spacing - dominantSpacing, maxBin)]++;
+            }
+        }
+        List<StatisticFindingData> data = new ArrayList<>();
+        for (int bin = -maxBin; bin <= maxBin; bin++) {
+            if (binCounts[maxBin + bin] >= 1) {
+                data.add(new StatisticFindingData(getBinLabel(bin, maxBin, dominantSpacing),
+                        binCounts[maxBin + bin]));
+            }
+        }
+        return new StatisticFinding(StatisticFindingType.LINE_SPACING, data, false);
+    }
+
+    private int getBin(int deviation, int maxBin) {
+        if (Math.abs(deviation) <= TOLERATED_DEVIATION) {
+            return 0;
+        }
+        int bin = (Math.abs(deviation) - TOLERATED_DEVIATION + BUCKETS_PER_POINT - 1) / BUCKETS_PER_POINT;
+        return Integer.signum(deviation) * Math.min(bin, maxBin);
+    }
+
+    private String getBinLabel(int bin, int maxBin, int dominantSpacing) {
+        String spacing = String.format("%.1f pt",
+                (float) (dominantSpacing + bin * BUCKETS_PER_POINT) / BUCKETS_PER_POINT);
+        if (bin == -maxBin) {
+            return "up to " + spacing;
+        } else if (bin == maxBin) {
+            return "from " + spacing;
+        }
+        return spacing;
     }
 
     @Override
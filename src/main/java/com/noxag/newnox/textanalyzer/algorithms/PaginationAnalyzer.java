@@ -2,14 +2,18 @@ package com.noxag.newnox.textanalyzer.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 
-import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.PageLocalTextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
@@ -22,67 +26,166 @@ import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
  * 
  * This class analyzes the correct pagination of the pdf
  * 
+ * <p>
+ * Only the last word of every page is needed, so every page only records its
+ * last word and whether it is a content page. The mistakes are determined
+ * when the pages are merged, which makes this algorithm cheap to rerun for a
+ * revision of the document. Pages without any text are skipped.
+ * </p>
+ * 
+ * <p>
+ * In fast mode, if this is the only algorithm and the text has not been
+ * extracted yet, only the bottom band of every page is extracted and compared
+ * with the page labels of the document. A page is only extracted completely
+ * if its label and its printed number disagree. See
+ * {@link TextanalyzerContext#probeDocument}.
+ * </p>
+ * 
  * @author Pascal.Schroeder@de.ibm.com
  *
  */
 
-public class PaginationAnalyzer implements TextanalyzerAlgorithm {
+public class PaginationAnalyzer implements PageLocalTextanalyzerAlgorithm<PaginationAnalyzer.PageNumber> {
     private static final Logger LOGGER = Logger.getLogger(CommonAbbreviationAnalyzer.class.getName());
+    private static final Pattern ROMAN_NUMBER = Pattern
+            .compile("^M{0,4}(CM|CD|D?C{0,3})(XC|XL|L?X{0,3})(IX|IV|V?I{0,3})$");
+    private static final float PAGE_NUMBER_BAND_HEIGHT = 0.15f;
+
+    /**
+     * The last word of a single page, it is only passed from
+     * {@link #analyzePage} to {@link #mergePageResults}
+     */
+    static final class PageNumber {
+        private final int pageIndex;
+        private final boolean contentPage;
+        private final TextPositionSequence lastWord;
+
+        PageNumber(int pageIndex, boolean contentPage, TextPositionSequence lastWord) {
+            this.pageIndex = pageIndex;
+            this.contentPage = contentPage;
+            this.lastWord = lastWord;
+        }
+    }
+
+    private final boolean fastMode;
+
+    public PaginationAnalyzer() {
+        this(false);
+    }
+
+    /**
+     * @param fastMode
+     *            whether only the bottom of the pages should be extracted if
+     *            the text of the document is not available yet
+     */
+    public PaginationAnalyzer(boolean fastMode) {
+        this.fastMode = fastMode;
+    }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
-        List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
-        try {
-            pages = PDFTextExtractionUtil.extractText(doc);
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Could not extract text from document", e);
+    public List<? extends Finding> run(TextanalyzerContext context) {
+        if (fastMode) {
+            try {
+                List<PDFPage> probedPages = context.probeDocument(this::extractPageNumbers);
+                if (probedPages != null) {
+                    List<PageNumber> pageNumbers = new ArrayList<>();
+                    probedPages.forEach(page -> pageNumbers.addAll(analyzePage(page, context)));
+                    return mergePageResults(pageNumbers);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not extract text from document", e);
+            }
         }
-        findings.addAll(getPaginationMistakes(pages));
+        return PageLocalTextanalyzerAlgorithm.super.run(context);
+    }
+
+    @Override
+    public PageSelection getPageSelection() {
+        return PageSelection.ALL_PAGES;
+    }
+
+    @Override
+    public List<PageNumber> analyzePage(PDFPage page, TextanalyzerContext context) {
+        if (page.getWords().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new PageNumber(page.getPageIndex(), page.isContentPage(), page.getLastWord()));
+    }
+
+    @Override
+    public List<Finding> mergePageResults(List<PageNumber> pageNumbers) {
+        List<Finding> findings = new ArrayList<>();
+        findings.addAll(getOutOfContentPaginationMistakes(pageNumbers));
+        findings.addAll(getContentPaginationMistakes(pageNumbers));
         if (findings.isEmpty()) {
             findings.add(new CommentaryFinding("No pagination mistakes found", this.getUIName(), 0, 0));
         }
         return findings;
     }
 
-    private List<Finding> getPaginationMistakes(List<PDFPage> pages) {
-
-        List<Finding> findings = new ArrayList<>();
-
-        findings.addAll(getOutOfContentPaginationMistakes(pages));
-        findings.addAll(getContentPaginationMistakes(pages));
+    /**
+     * Extracts the bottom band of every page, which is enough to find the
+     * last word of a page as long as the printed page number is in the band.
+     * This is trusted if the number matches the page label or, for documents
+     * without page labels, if it is a number at all.
+     */
+    private List<PDFPage> extractPageNumbers(PDDocument document) throws IOException {
+        String[] labels = PDFTextExtractionUtil.getPageLabels(document);
+        List<PDFPage> pages = PDFTextExtractionUtil.extractBottomBands(document, PAGE_NUMBER_BAND_HEIGHT);
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            PDFPage page = pages.get(pageIndex);
+            if (page.getWords().isEmpty() || !isPrintedPageNumber(page.getLastWord().toString(), labels, pageIndex)) {
+                pages.set(pageIndex, PDFTextExtractionUtil.extractText(document, pageIndex + 1));
+            }
+        }
+        return pages;
+    }
 
-        return findings;
+    private boolean isPrintedPageNumber(String lastWord, String[] labels, int pageIndex) {
+        if (labels != null && pageIndex < labels.length) {
+            return lastWord.equals(labels[pageIndex]);
+        }
+        return isInteger(lastWord) || isRomanNumber(lastWord);
     }
 
-    private List<Finding> getOutOfContentPaginationMistakes(List<PDFPage> pages) {
+    /**
+     * The pages after the table of content, that is the last content page,
+     * which are no content pages themselves. If the document can not be
+     * reduced to its content, there are no such pages.
+     * 
+     * @see PDFTextExtractionUtil#extractContentPages(List)
+     */
+    private List<Finding> getOutOfContentPaginationMistakes(List<PageNumber> pageNumbers) {
         List<Finding> findings = new ArrayList<>();
 
-        List<PDFPage> tableContentPages = PDFTextExtractionUtil.extractContentPages(pages);
+        List<PageNumber> contentPageNumbers = pageNumbers.stream().filter(page -> page.contentPage)
+                .collect(Collectors.toList());
+        List<PageNumber> tableContentPageNumbers = PDFTextExtractionUtil
+                .isReducibleToContent(contentPageNumbers.size(), pageNumbers.size()) ? contentPageNumbers
+                        : pageNumbers;
 
-        int tableContentPageIndex = tableContentPages.size() > 0
-                ? tableContentPages.get(tableContentPages.size() - 1).getPageIndex()
+        int tableContentPageIndex = tableContentPageNumbers.size() > 0
+                ? tableContentPageNumbers.get(tableContentPageNumbers.size() - 1).pageIndex
                 : 0;
 
-        pages.stream().filter(page -> page.getPageIndex() > tableContentPageIndex && !page.isContentPage())
+        pageNumbers.stream().filter(page -> page.pageIndex > tableContentPageIndex && !page.contentPage)
                 .forEach(page -> {
-                    TextPositionSequence lastWord = page.getLastWord();
-                    if (!(isRomanNumber(lastWord.toString()) || isInteger(lastWord.toString()))) {
-                        findings.add(new TextFinding(lastWord, TextFindingType.PAGINATION));
+                    if (!(isRomanNumber(page.lastWord.toString()) || isInteger(page.lastWord.toString()))) {
+                        findings.add(new TextFinding(page.lastWord, TextFindingType.PAGINATION));
                     }
                 });
 
         return findings;
     }
 
-    private List<Finding> getContentPaginationMistakes(List<PDFPage> pages) {
+    private List<Finding> getContentPaginationMistakes(List<PageNumber> pageNumbers) {
         List<Finding> findings = new ArrayList<>();
 
         AtomicInteger counter = new AtomicInteger(1);
-        pages.stream().filter(page -> page.isContentPage()).forEach(page -> {
-            TextPositionSequence lastWord = page.getLastWord();
-            if (!isInteger(lastWord.toString()) || !counter.toString().equals(lastWord.toString())) {
-                findings.add(new TextFinding(lastWord, TextFindingType.PAGINATION));
+        pageNumbers.stream().filter(page -> page.contentPage).forEach(page -> {
+            String lastWord = page.lastWord.toString();
+            if (!isInteger(lastWord) || !counter.toString().equals(lastWord)) {
+                findings.add(new TextFinding(page.lastWord, TextFindingType.PAGINATION));
             }
             counter.getAndIncrement();
         });
@@ -90,8 +193,7 @@ public class PaginationAnalyzer implements TextanalyzerAlgorithm {
     }
 
     private boolean isRomanNumber(String input) {
-        String pattern = "^M{0,4}(CM|CD|D?C{0,3})(XC|XL|L?X{0,3})(IX|IV|V?I{0,3})$";
-        return input.matches(pattern);
+        return ROMAN_NUMBER.matcher(input).matches();
     }
 
     private boolean isInteger(String string) {
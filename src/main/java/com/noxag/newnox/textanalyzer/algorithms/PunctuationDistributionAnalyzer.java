@@ -2,24 +2,20 @@ package com.noxag.newnox.textanalyzer.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-
-import org.apache.pdfbox.pdmodel.PDDocument;
 
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding.StatisticFindingType;
 import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
-import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 
 /**
  * This class produces a statistic to show which punctuation marks have been
@@ -32,15 +28,14 @@ public class PunctuationDistributionAnalyzer implements TextanalyzerAlgorithm {
     private static final Logger LOGGER = Logger.getLogger(PunctuationDistributionAnalyzer.class.getName());
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
+        Map<String, Long> punctuationMarks = new HashMap<>();
         try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
+            punctuationMarks = context.collectReducedContent(HashMap::new, this::countPunctuationMarks);
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not extract text from document", e);
         }
-        List<TextPositionSequence> punctuationMarks = findMatches(pages);
         findings.add(generateStatisticFinding(punctuationMarks));
         if (findings.isEmpty()) {
             findings.add(new CommentaryFinding("No punctuation marks found", this.getUIName(), 0, 0));
@@ -48,19 +43,17 @@ public class PunctuationDistributionAnalyzer implements TextanalyzerAlgorithm {
         return findings;
     }
 
-    private List<TextPositionSequence> findMatches(List<PDFPage> pages) {
-        List<TextPositionSequence> words = PDFTextExtractionUtil.extractWords(pages);
-        return words.stream().filter(TextPositionSequence::isPunctuationMark).collect(Collectors.toList());
+    private void countPunctuationMarks(Map<String, Long> punctuationMarks, PDFPage page) {
+        page.forEachWord(word -> {
+            if (word.isPunctuationMark()) {
+                punctuationMarks.merge(toNameOfPunctuationMark(word.toString()), 1L, Long::sum);
+            }
+        });
     }
 
-    private Finding generateStatisticFinding(List<TextPositionSequence> matches) {
+    private Finding generateStatisticFinding(Map<String, Long> matchesGroupedByName) {
         List<StatisticFindingData> data = new ArrayList<>();
 
-        List<String> matchesAsPunctionNames = matches.stream().map(TextPositionSequence::toString)
-                .map(this::toNameOfPunctuationMark).collect(Collectors.toList());
-
-        Map<String, Long> matchesGroupedByName = matchesAsPunctionNames.stream()
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
         matchesGroupedByName.entrySet().stream()
                 .forEachOrdered(entry -> data.add(new StatisticFindingData(entry.getKey(), entry.getValue())));
 
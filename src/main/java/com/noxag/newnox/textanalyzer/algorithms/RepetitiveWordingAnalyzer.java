@@ -6,21 +6,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
-import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenDictionary;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenStream;
 import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
 import com.opencsv.CSVReader;
 
 /**
@@ -36,94 +33,118 @@ public class RepetitiveWordingAnalyzer implements TextanalyzerAlgorithm {
 
     private static final int AMOUNT_OF_WORDS_TO_COMPARE = 20;
     private static final int ALLOWED_REPETITIONS_BY_DEFAULT = 2;
+    private static final int IGNORED_TOKEN = -1;
 
     private Map<String, Integer> repretitivWordingExceptions;
+    private int windowSize;
+    private int allowedRepetitions;
 
     public RepetitiveWordingAnalyzer() {
-        repretitivWordingExceptions = readRepetitiveWordingExceptionFile(REPETITIVE_WORDING_EXCEPTION_PATH);
+        this(REPETITIVE_WORDING_EXCEPTION_PATH);
+    }
+
+    public RepetitiveWordingAnalyzer(String repetitiveWordingExceptionPath) {
+        this(repetitiveWordingExceptionPath, AMOUNT_OF_WORDS_TO_COMPARE, ALLOWED_REPETITIONS_BY_DEFAULT);
+    }
+
+    /**
+     * @param repetitiveWordingExceptionPath
+     *            the CSV file with the allowed repetitions of single words
+     * @param windowSize
+     *            the number of consecutive words that are compared
+     * @param allowedRepetitions
+     *            how often a word may occur within the window, unless the
+     *            word has its own limit in the CSV file
+     */
+    public RepetitiveWordingAnalyzer(String repetitiveWordingExceptionPath, int windowSize, int allowedRepetitions) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("The window has to contain at least one word");
+        }
+        this.repretitivWordingExceptions = readRepetitiveWordingExceptionFile(repetitiveWordingExceptionPath);
+        this.windowSize = windowSize;
+        this.allowedRepetitions = allowedRepetitions;
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
-        List<PDFPage> pages = new ArrayList<>();
+    public List<Finding> run(TextanalyzerContext context) {
+        TokenStream tokens = TokenStream.of(new ArrayList<>(), context.getTokenDictionary());
 
         try {
-            pages = PDFTextExtractionUtil.extractContentPages(PDFTextExtractionUtil.extractText(doc));
+            tokens = TokenStream.of(context.getContentIndex().getWords(), context.getTokenDictionary());
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not strip text from document", e);
         }
-        List<Finding> findings = getRepetitionsInWordBlock(pages);
+        List<Finding> findings = getRepetitionsInWordBlock(tokens);
         if (findings.isEmpty()) {
             findings.add(new CommentaryFinding("No word repetitions found", this.getUIName(), 0, 0));
         }
         return findings;
     }
 
-    private List<Finding> getRepetitionsInWordBlock(List<PDFPage> pages) {
-        List<TextPositionSequence> wordInPDF = PDFTextExtractionUtil.extractWords(pages);
+    /**
+     * Slides a window over the words and marks every word that occurs more
+     * often within the window than allowed. The window is a ring buffer of
+     * token ids, every occurrence is marked only once.
+     */
+    private List<Finding> getRepetitionsInWordBlock(TokenStream tokens) {
         List<Finding> findings = new ArrayList<>();
-
-        Map<String, Integer> repetitiveWordMap = new HashMap<>();
-        // This var saves last 20 words as TextPositionSequence, which were
-        // analyzed in HashMap
-        List<TextPositionSequence> actuallyWordBlock = new ArrayList<>();
-
-        wordInPDF.stream().filter(word -> !PDFTextAnalyzerUtil.isPunctuationMark(word) && !isInteger(word.toString()))
-                .forEach(nextWord -> {
-                    if (actuallyWordBlock.size() < AMOUNT_OF_WORDS_TO_COMPARE) {
-                        repetitiveWordMap.put(nextWord.toString(), calculateValueOfKey(nextWord, repetitiveWordMap));
-                        actuallyWordBlock.add(nextWord);
-                    } else {
-                        removeKeyOutOfMap(repetitiveWordMap, actuallyWordBlock.get(0).toString());
-                        repetitiveWordMap.put(nextWord.toString(), calculateValueOfKey(nextWord, repetitiveWordMap));
-                        actuallyWordBlock.remove(0);
-                        actuallyWordBlock.add(nextWord);
+        int[] allowedRepetitionsOfToken = getAllowedRepetitions(tokens.getDictionary());
+        int[] tokenCounts = new int[allowedRepetitionsOfToken.length];
+
+        int[] windowTokens = new int[windowSize];
+        int[] windowWords = new int[windowSize];
+        boolean[] marked = new boolean[windowSize];
+        int windowStart = 0;
+        int windowLength = 0;
+
+        for (int word = 0; word < tokens.size(); word++) {
+            int token = tokens.getToken(word);
+            if (allowedRepetitionsOfToken[token] == IGNORED_TOKEN
+                    || PDFTextAnalyzerUtil.isPunctuationMark(tokens.getWord(word))) {
+                continue;
+            }
+            if (windowLength == windowSize) {
+                tokenCounts[windowTokens[windowStart]]--;
+                windowStart = (windowStart + 1) % windowSize;
+                windowLength--;
+            }
+            int slot = (windowStart + windowLength) % windowSize;
+            windowTokens[slot] = token;
+            windowWords[slot] = word;
+            marked[slot] = false;
+            windowLength++;
+
+            // only the count of the new word can exceed its limit
+            if (++tokenCounts[token] > allowedRepetitionsOfToken[token]) {
+                for (int i = 0; i < windowLength; i++) {
+                    int windowSlot = (windowStart + i) % windowSize;
+                    if (windowTokens[windowSlot] == token && !marked[windowSlot]) {
+                        marked[windowSlot] = true;
+                        findings.add(new TextFinding(tokens.getWord(windowWords[windowSlot]),
+                                TextFindingType.REPETITIVE_WORDING));
                     }
-                    findings.addAll(addRepetitiveWordsToFindings(repetitiveWordMap, actuallyWordBlock));
-                });
-        return findings;
-    }
-
-    private Integer calculateValueOfKey(TextPositionSequence nextWord, Map<String, Integer> repetitiveWordMap) {
-        return (repetitiveWordMap.containsKey(nextWord.toString()) ? repetitiveWordMap.get(nextWord.toString()) + 1
-                : 1);
-    }
-
-    private void removeKeyOutOfMap(Map<String, Integer> map, String key) {
-        map.put(key, map.get(key) - 1);
-        if (map.get(key) == 0) {
-            map.remove(key);
+                }
+            }
         }
-    }
-
-    private List<Finding> addRepetitiveWordsToFindings(Map<String, Integer> repetitiveWordMap,
-            List<TextPositionSequence> actuallyWordBlock) {
-        List<Finding> findings = new ArrayList<>();
-        repetitiveWordMap.entrySet().stream().filter(entry -> {
-            return getAllowedRepetitionsForEntry(entry);
-        }).forEach(repetitiveEntry -> {
-            findings.addAll(getAllPositionSequencesThroughString(actuallyWordBlock, repetitiveEntry));
-        });
         return findings;
     }
 
-    private boolean getAllowedRepetitionsForEntry(Entry<String, Integer> entry) {
-        if (repretitivWordingExceptions.containsKey(entry.getKey())) {
-            return entry.getValue() > repretitivWordingExceptions.get(entry.getKey());
-        } else {
-            return entry.getValue() > ALLOWED_REPETITIONS_BY_DEFAULT;
+    /**
+     * @returns the allowed repetitions of every token of the dictionary, or
+     *          {@link #IGNORED_TOKEN} for numbers
+     */
+    private int[] getAllowedRepetitions(TokenDictionary dictionary) {
+        Map<Integer, Integer> exceptions = new HashMap<>();
+        repretitivWordingExceptions.forEach((word, repetitions) -> exceptions.put(dictionary.getId(word), repetitions));
+        int[] allowedRepetitionsOfToken = new int[dictionary.size()];
+        for (int token = 0; token < allowedRepetitionsOfToken.length; token++) {
+            if (isInteger(dictionary.getToken(token))) {
+                allowedRepetitionsOfToken[token] = IGNORED_TOKEN;
+            } else {
+                allowedRepetitionsOfToken[token] = exceptions.getOrDefault(token, allowedRepetitions);
+            }
         }
-    }
-
-    private List<Finding> getAllPositionSequencesThroughString(List<TextPositionSequence> actuallyWordBlock,
-            Entry<String, Integer> repetitiveEntry) {
-        List<Finding> foundPositionSequences = new ArrayList<>();
-        actuallyWordBlock.stream().filter(wordsOfBlock -> wordsOfBlock.toString().equals(repetitiveEntry.getKey()))
-                .forEach(entryPositionSequence -> {
-                    foundPositionSequences
-                            .add(new TextFinding(entryPositionSequence, TextFindingType.REPETITIVE_WORDING));
-                });
-        return foundPositionSequences;
+        return allowedRepetitionsOfToken;
     }
 
     private Map<String, Integer> readRepetitiveWordingExceptionFile(String repetitiveWordingExceptionPath) {
@@ -2,22 +2,13 @@ package com.noxag.newnox.textanalyzer.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.TextPosition;
 
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
@@ -26,135 +17,168 @@ import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
-import com.noxag.newnox.textanalyzer.data.pdf.PDFParagraph;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFTextIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.SentenceIndex;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
 import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
 import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
-
+import com.noxag.newnox.textanalyzer.util.ReadabilityUtil;
+
+/**
+ * This analyzer measures the length and the readability of every sentence
+ * and the readability of every chapter
+ *
+ * <p>
+ * The sentences are segmented once by the {@link TextanalyzerContext}, the
+ * words and syllables of all sentences are counted in a single pass. A
+ * sentence is marked if it is too long or, having enough words for a
+ * meaningful score, hard to read. A chapter starts with every content page
+ * whose first line is a headline.
+ * </p>
+ *
+ */
 public class SentenceComplexityAnalyzer implements TextanalyzerAlgorithm {
-    private static final Logger LOGGER = Logger.getLogger(WordingAnalyzer.class.getName());
+    private static final Logger LOGGER = Logger.getLogger(SentenceComplexityAnalyzer.class.getName());
     private static final int MAX_WORDS_IN_SENCTENCE = 25;
+    private static final int MIN_WORDS_FOR_READABILITY = 8;
+    private static final double MIN_SENTENCE_READABILITY = 0;
+    private static final String UNTITLED_CHAPTER = "Untitled";
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
+        SentenceIndex sentences = new SentenceIndex(PDFTextIndex.of(Collections.emptyList()), new int[] { 0 });
+        PDFTextIndex contentIndex = PDFTextIndex.of(Collections.emptyList());
         try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
-
+            sentences = context.getReducedContentSentences();
+            contentIndex = context.getContentIndex();
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, "Could not extract text from document", e);
         }
-        Map<PDFParagraph, Integer> sentences = getComplexity(getSentences(pages));
-        if (sentences.entrySet().isEmpty()) {
+
+        List<String> chapterTitles = new ArrayList<>();
+        int[] chapterOfPage = getChapters(contentIndex, chapterTitles);
+        int[] chapterSentences = new int[chapterTitles.size()];
+        int[] chapterWords = new int[chapterTitles.size()];
+        int[] chapterSyllables = new int[chapterTitles.size()];
+
+        int[] wordCounts = new int[sentences.size()];
+        int[] syllableCounts = new int[sentences.size()];
+        boolean foundSentence = false;
+        for (int sentence = 0; sentence < sentences.size(); sentence++) {
+            for (TextPositionSequence word : sentences.getWords(sentence)) {
+                if (!PDFTextAnalyzerUtil.isPunctuationMark(word)) {
+                    wordCounts[sentence]++;
+                    syllableCounts[sentence] += ReadabilityUtil.countSyllables(word);
+                }
+            }
+            if (wordCounts[sentence] >= 1) {
+                foundSentence = true;
+                int page = sentences.getPage(sentence);
+                if (page < chapterOfPage.length) {
+                    int chapter = chapterOfPage[page];
+                    chapterSentences[chapter]++;
+                    chapterWords[chapter] += wordCounts[sentence];
+                    chapterSyllables[chapter] += syllableCounts[sentence];
+                }
+            }
+        }
+
+        if (!foundSentence) {
             findings.add(new CommentaryFinding("No sentences found", this.getUIName(), 0, 0));
         } else {
-            findings.add(generateStatisticFinding(sentences));
-            findings.addAll(generateTextFindings(sentences));
+            findings.add(generateStatisticFinding(wordCounts));
+            findings.add(generateReadabilityFinding(chapterTitles, chapterSentences, chapterWords, chapterSyllables));
+            findings.addAll(generateTextFindings(sentences, wordCounts, syllableCounts));
         }
         return findings;
     }
 
-    private Map<PDFParagraph, Integer> getComplexity(List<PDFParagraph> sentences) {
-        Map<PDFParagraph, Integer> complexityMapping = new HashMap<>();
-        sentences.stream().forEach(sentence -> {
-            int wordCount = sentence.getWords().stream().filter(word -> !PDFTextAnalyzerUtil.isPunctuationMark(word))
-                    .collect(Collectors.toList()).size();
-            if (wordCount >= 1) {
-                complexityMapping.put(sentence, wordCount);
-            }
-        });
-        return complexityMapping;
-    }
-
-    private List<PDFParagraph> getSentences(List<PDFPage> pages) {
-        List<PDFParagraph> sentences = new ArrayList<>();
-        List<PDFParagraph> paragraphs = PDFTextExtractionUtil.extractParagraphs(pages);
-
-        PDFParagraph sentence = new PDFParagraph();
-        PDFLine sentenceLine = new PDFLine();
-        TextPositionSequence currentWord = null;
-        TextPositionSequence nextWord;
-        for (PDFParagraph paragraph : paragraphs) {
-            ListIterator<PDFLine> lineIterator = paragraph.getLines().stream()
-                    .collect(Collectors.toCollection(LinkedList::new)).listIterator();
-            while (lineIterator.hasNext()) {
-                PDFLine currrentLine = lineIterator.next();
-                ListIterator<TextPositionSequence> wordIterator = currrentLine.getWords().stream()
-                        .collect(Collectors.toCollection(LinkedList::new)).listIterator();
-                while (wordIterator.hasNext()) {
-                    currentWord = wordIterator.next();
-                    if (wordIterator.hasNext()) {
-                        nextWord = wordIterator.next();
-                        wordIterator.previous();
-                    } else if (lineIterator.hasNext()) {
-                        nextWord = lineIterator.next().getFirstWord();
-                        lineIterator.previous();
-                    } else {
-                        nextWord = null;
-                    }
-
-                    sentenceLine.getWords().add(currentWord);
-                    if (isPunctuationMark(currentWord, nextWord)) {
-                        sentence.add(sentenceLine);
-                        sentences.add(sentence);
-                        sentence = new PDFParagraph();
-                        sentenceLine = new PDFLine();
-
-                    }
-                }
-                sentence.add(sentenceLine);
-                sentenceLine = new PDFLine();
+    /**
+     * Assigns every page of the content to a chapter
+     *
+     * @param contentIndex
+     *            the content pages, including their headlines
+     * @param chapterTitles
+     *            the list the titles of the chapters are added to
+     * @returns the chapter of every page
+     */
+    private int[] getChapters(PDFTextIndex contentIndex, List<String> chapterTitles) {
+        int[] chapterOfPage = new int[contentIndex.getPages().size()];
+        for (int page = 0; page < chapterOfPage.length; page++) {
+            List<PDFLine> lines = contentIndex.getLinesOfPage(page);
+            if (!lines.isEmpty() && PDFTextExtractionUtil.isHeadline(lines.get(0))) {
+                chapterTitles.add(toUniqueTitle(lines.get(0).toString().trim(), chapterTitles));
+            } else if (chapterTitles.isEmpty()) {
+                chapterTitles.add(UNTITLED_CHAPTER);
             }
-            sentences.add(sentence);
-            sentence = new PDFParagraph();
+            chapterOfPage[page] = chapterTitles.size() - 1;
         }
-
-        return sentences;
-
+        return chapterOfPage;
     }
 
-    private boolean isPunctuationMark(TextPositionSequence currentWord, TextPositionSequence nextWord) {
-        List<TextPosition> textPositions = currentWord.getTextPositions();
-        String[] punctutationMarkers = { ".", ":" };
-        boolean correctSize = textPositions.size() == 1;
-        boolean puncuationmarkCharacter = Arrays.stream(punctutationMarkers)
-                .anyMatch(marker -> textPositions.get(0).toString().equals(marker));
-        boolean nextWordIsUpperCase = nextWord != null && Character.isUpperCase(nextWord.charAt(0));
-
-        return correctSize && puncuationmarkCharacter && nextWordIsUpperCase;
+    /**
+     * The titles label the bars of the readability statistic, so chapters
+     * with the same title, like several 'Einleitung's, are numbered
+     */
+    private String toUniqueTitle(String title, List<String> chapterTitles) {
+        String uniqueTitle = title;
+        for (int number = 2; chapterTitles.contains(uniqueTitle); number++) {
+            uniqueTitle = title + " (" + number + ")";
+        }
+        return uniqueTitle;
     }
 
-    private List<? extends Finding> generateTextFindings(Map<PDFParagraph, Integer> sentences) {
+    private List<? extends Finding> generateTextFindings(SentenceIndex sentences, int[] wordCounts,
+            int[] syllableCounts) {
         List<TextFinding> textFindings = new ArrayList<>();
-        sentences.entrySet().stream().filter(entry -> entry.getValue() >= MAX_WORDS_IN_SENCTENCE).forEach(entry -> {
-            textFindings.add(new TextFinding(entry.getKey().getLines(), TextFindingType.SENTENCE_COMPLEXITY));
-        });
+        for (int sentence = 0; sentence < sentences.size(); sentence++) {
+            if (wordCounts[sentence] >= MAX_WORDS_IN_SENCTENCE
+                    || isHardToRead(wordCounts[sentence], syllableCounts[sentence])) {
+                textFindings.add(new TextFinding(sentences.getLines(sentence), TextFindingType.SENTENCE_COMPLEXITY));
+            }
+        }
         return textFindings;
     }
 
-    private Finding generateStatisticFinding(Map<PDFParagraph, Integer> sentences) {
-        List<StatisticFindingData> data = new ArrayList<>();
-        Map<Integer, Long> sentencesGroupedByWordcount = sentences.entrySet().stream()
-                .collect(Collectors.groupingBy(Entry::getValue, Collectors.counting()));
+    private boolean isHardToRead(int words, int syllables) {
+        return words >= MIN_WORDS_FOR_READABILITY
+                && ReadabilityUtil.fleschAmstad(1, words, syllables) < MIN_SENTENCE_READABILITY;
+    }
+
+    private Finding generateStatisticFinding(int[] wordCounts) {
+        int maxWordCount = 0;
+        for (int wordCount : wordCounts) {
+            maxWordCount = Math.max(maxWordCount, wordCount);
+        }
+        int[] sentencesByWordCount = new int[maxWordCount + 1];
+        for (int wordCount : wordCounts) {
+            sentencesByWordCount[wordCount]++;
+        }
 
         // only entries with at least two words and entries that occur at least
         // one time
-        List<Entry<Integer, Long>> sentenceMapEntries = sentencesGroupedByWordcount.entrySet().stream()
-                .filter(entry -> entry.getKey() > 1).filter(entry -> entry.getValue() >= 1)
-                .collect(Collectors.toList());
-
-        sentenceMapEntries.sort(Comparator.comparing(Entry::getKey));
-
-        sentenceMapEntries.stream().forEach(entry -> {
-            String word = entry.getKey() >= 2 ? "words" : "word";
-            data.add(new StatisticFindingData(entry.getKey() + " " + word, entry.getValue()));
-        });
-
+        List<StatisticFindingData> data = new ArrayList<>();
+        for (int wordCount = 2; wordCount <= maxWordCount; wordCount++) {
+            if (sentencesByWordCount[wordCount] >= 1) {
+                data.add(new StatisticFindingData(wordCount + " words", sentencesByWordCount[wordCount]));
+            }
+        }
         return new StatisticFinding(StatisticFindingType.SENTENCE_COMPLEXITY, data, false);
     }
 
+    private Finding generateReadabilityFinding(List<String> chapterTitles, int[] chapterSentences,
+            int[] chapterWords, int[] chapterSyllables) {
+        List<StatisticFindingData> data = new ArrayList<>();
+        for (int chapter = 0; chapter < chapterTitles.size(); chapter++) {
+            if (chapterSentences[chapter] >= 1) {
+                data.add(new StatisticFindingData(chapterTitles.get(chapter), ReadabilityUtil
+                        .fleschAmstad(chapterSentences[chapter], chapterWords[chapter], chapterSyllables[chapter])));
+            }
+        }
+        return new StatisticFinding(StatisticFindingType.READABILITY, data, false);
+    }
+
     @Override
     public String getUIName() {
         return "Check for complex sentence";
@@ -7,68 +7,86 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-
-import org.apache.pdfbox.pdmodel.PDDocument;
 
 import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding.StatisticFindingType;
 import com.noxag.newnox.textanalyzer.data.StatisticFindingData;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
-import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+import com.noxag.newnox.textanalyzer.data.pdf.SpaceSavingTokenCounts;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenCounter;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenCounts;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenDictionary;
 import com.opencsv.CSVReader;
 
 /**
  * This class produces a statistic to show which words have been used often
  * 
+ * <p>
+ * By default every word is counted exactly. With a sketch capacity the words
+ * are counted by a {@link SpaceSavingTokenCounts} in a fixed amount of
+ * memory, the most frequent words are still found, but their counts may be
+ * overestimated.
+ * </p>
+ * 
  * @author Lars.Dittert@de.ibm.com
  *
  */
 public class VocabularyDistributionAnalyzer implements TextanalyzerAlgorithm {
     private static final Logger LOGGER = Logger.getLogger(VocabularyDistributionAnalyzer.class.getName());
     private static final String VOCABULARY_DISTRIBUTION_EXCEPTIONS_PATH = "src/main/resources/analyzer-conf/vocabularydistributionanalyzer-blacklist.csv";
-    private List<String> vocabularyDistributionExceptions;
+    private Set<String> vocabularyDistributionExceptions;
     private static final String ERROR_MESSAGE_FINDINGS_COULD_NOT_BE_CREATE = "Findings could not be create.";
     private static final int MAX_STATISTIC_DATA_FINDINGS = 15;
+    private final Supplier<TokenCounter> tokenCounterSupplier;
 
     public VocabularyDistributionAnalyzer() {
         this(VOCABULARY_DISTRIBUTION_EXCEPTIONS_PATH);
     }
 
     public VocabularyDistributionAnalyzer(String vocabularyDistributionExceptionsPath) {
+        this(vocabularyDistributionExceptionsPath, 0);
+    }
+
+    /**
+     * @param vocabularyDistributionExceptionsPath
+     *            the path of the CSV file with the words to be ignored
+     * @param sketchCapacity
+     *            the maximum number of counted words, or 0 to count every word
+     *            exactly
+     */
+    public VocabularyDistributionAnalyzer(String vocabularyDistributionExceptionsPath, int sketchCapacity) {
         this.vocabularyDistributionExceptions = readExceptionsFile(vocabularyDistributionExceptionsPath);
+        this.tokenCounterSupplier = sketchCapacity > 0 ? () -> new SpaceSavingTokenCounts(sketchCapacity)
+                : TokenCounts::new;
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
+    public List<Finding> run(TextanalyzerContext context) {
         List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
-        List<TextPositionSequence> words = new ArrayList<>();
+        TokenDictionary dictionary = context.getTokenDictionary();
+        TokenCounter tokenCounts = tokenCounterSupplier.get();
         try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
-            words = PDFTextExtractionUtil.extractWords(pages);
+            tokenCounts = context.collectReducedContent(tokenCounterSupplier,
+                    (counts, page) -> countTokens(counts, page, dictionary));
         } catch (IOException e) {
             LOGGER.log(Level.WARNING, ERROR_MESSAGE_FINDINGS_COULD_NOT_BE_CREATE, e);
-            e.printStackTrace();
         }
-        Map<String, Long> wordFrequencyMap = mapWordsWithFrequency(words);
-        if (wordFrequencyMap.isEmpty()) {
+        int[] topTokens = tokenCounts.getTopTokens(MAX_STATISTIC_DATA_FINDINGS,
+                token -> isCountedWord(dictionary.getToken(token)));
+        if (topTokens.length == 0) {
             findings.add(new CommentaryFinding("No words found", this.getUIName(), 0, 0));
         } else {
-            findings.add(generateStatisticFinding(wordFrequencyMap));
+            findings.add(generateStatisticFinding(topTokens, tokenCounts, dictionary));
         }
         return findings;
     }
@@ -78,30 +96,33 @@ public class VocabularyDistributionAnalyzer implements TextanalyzerAlgorithm {
         return "Vocabulary distribution";
     }
 
-    private StatisticFinding generateStatisticFinding(Map<String, Long> map) {
+    private StatisticFinding generateStatisticFinding(int[] topTokens, TokenCounter tokenCounts,
+            TokenDictionary dictionary) {
         List<StatisticFindingData> data = new ArrayList<>();
-
-        List<Entry<String, Long>> hashEntries = map.entrySet().stream().collect(Collectors.toList());
-        hashEntries.sort(Collections.reverseOrder(Comparator.comparing(Entry::getValue)));
-
-        hashEntries.stream().limit(MAX_STATISTIC_DATA_FINDINGS)
-                .forEachOrdered(entry -> data.add(new StatisticFindingData(entry.getKey(), entry.getValue())));
-
+        for (int token : topTokens) {
+            data.add(new StatisticFindingData(dictionary.getToken(token), tokenCounts.getCount(token)));
+        }
         return new StatisticFinding(StatisticFindingType.VOCABULARY_DISTRIBUTION, data);
     }
 
-    public Map<String, Long> mapWordsWithFrequency(List<TextPositionSequence> words) {
-        List<String> matchesAsString = words.stream().filter(word -> !PDFTextAnalyzerUtil.isPunctuationMark(word))
-                .map(TextPositionSequence::toString).map(String::toLowerCase).collect(Collectors.toList());
+    private void countTokens(TokenCounter tokenCounts, PDFPage page, TokenDictionary dictionary) {
+        page.forEachWord(word -> {
+            if (word.isNotPunctuationMark()) {
+                tokenCounts.add(dictionary.getId(word));
+            }
+        });
+    }
 
-        Map<String, Long> matchesGroupedByName = matchesAsString.stream()
-                .filter(word -> !vocabularyDistributionExceptions.contains(word) && !isInteger(word))
-                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
-        return matchesGroupedByName;
+    /**
+     * Only the distinct words are converted to Strings and checked against
+     * the exceptions, instead of every single occurrence
+     */
+    private boolean isCountedWord(String word) {
+        return !vocabularyDistributionExceptions.contains(word) && !isInteger(word);
     }
 
-    private List<String> readExceptionsFile(String vocabularyDistributionExceptionsPath) {
-        List<String> vocabularyDistributionExceptions = new ArrayList<>();
+    private Set<String> readExceptionsFile(String vocabularyDistributionExceptionsPath) {
+        Set<String> vocabularyDistributionExceptions = new HashSet<>();
         try {
             CSVReader reader = new CSVReader(new FileReader(vocabularyDistributionExceptionsPath));
             String[] line;
@@ -4,6 +4,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -11,9 +12,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-
-import com.noxag.newnox.textanalyzer.TextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.PageLocalTextanalyzerAlgorithm;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.textanalyzer.data.Finding;
 import com.noxag.newnox.textanalyzer.data.StatisticFinding;
@@ -23,8 +23,7 @@ import com.noxag.newnox.textanalyzer.data.TextFinding;
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
-import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+import com.noxag.newnox.textanalyzer.util.PhraseMatcher;
 import com.opencsv.CSVReader;
 
 /**
@@ -39,51 +38,47 @@ import com.opencsv.CSVReader;
  * @author Tobias.Schmidt@de.ibm.com
  *
  */
-public class WordingAnalyzer implements TextanalyzerAlgorithm {
+public class WordingAnalyzer implements PageLocalTextanalyzerAlgorithm<Finding> {
 
     private static final Logger LOGGER = Logger.getLogger(WordingAnalyzer.class.getName());
     private static final String BLACKLIST_PATH = "src/main/resources/analyzer-conf/wording-blacklist.csv";
-    private List<String> wordingBlacklist;
+    private PhraseMatcher wordingBlacklistMatcher;
 
     public WordingAnalyzer() {
         this(BLACKLIST_PATH);
     }
 
     public WordingAnalyzer(String wordingBlacklistPath) {
-        this.wordingBlacklist = readWordingBlackListFile(wordingBlacklistPath);
+        this.wordingBlacklistMatcher = new PhraseMatcher(readWordingBlackListFile(wordingBlacklistPath).stream()
+                .map(Collections::singletonList).collect(Collectors.toList()));
     }
 
     @Override
-    public List<Finding> run(PDDocument doc) {
-        List<Finding> findings = new ArrayList<>();
-        List<PDFPage> pages = new ArrayList<>();
-        try {
-            pages = PDFTextExtractionUtil.reduceToContent(PDFTextExtractionUtil.extractText(doc));
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Could not extract text from document", e);
-        }
-        List<TextPositionSequence> matches = findMatches(pages, wordingBlacklist);
+    public PageSelection getPageSelection() {
+        return PageSelection.REDUCED_CONTENT;
+    }
+
+    @Override
+    public List<? extends Finding> analyzePage(PDFPage page, TextanalyzerContext context) {
+        List<TextPositionSequence> words = page.getWords();
+        List<TextPositionSequence> matches = wordingBlacklistMatcher.findMatches(words).stream()
+                .map(match -> words.get(match.getStart())).collect(Collectors.toList());
+        return generateTextFindings(matches);
+    }
+
+    @Override
+    public List<Finding> mergePageResults(List<Finding> pageFindings) {
+        List<Finding> findings = new ArrayList<>(pageFindings);
+        List<TextPositionSequence> matches = pageFindings.stream().map(TextFinding.class::cast)
+                .flatMap(finding -> finding.getTextPositionSequences().stream()).collect(Collectors.toList());
         if (matches.isEmpty()) {
             findings.add(new CommentaryFinding("No ill wording found", this.getUIName(), 0, 0));
         } else {
-            findings.addAll(generateTextFindings(matches));
             findings.add(generateStatisticFinding(matches));
         }
         return findings;
     }
 
-    private List<TextPositionSequence> findMatches(List<PDFPage> pages, List<String> wordsToFind) {
-        List<TextPositionSequence> hits = new ArrayList<>();
-        wordsToFind.stream().forEach(word -> hits.addAll(findMatches(pages, word)));
-        return hits;
-    }
-
-    private List<TextPositionSequence> findMatches(List<PDFPage> pages, String word) {
-        List<TextPositionSequence> hits = new ArrayList<>();
-        hits = PDFTextAnalyzerUtil.find(pages, word, PDFTextAnalyzerUtil::findWordIgnoreCase);
-        return hits;
-    }
-
     private List<? extends Finding> generateTextFindings(List<TextPositionSequence> textPositions) {
         List<TextFinding> textFindings = new ArrayList<>();
         textPositions.stream()
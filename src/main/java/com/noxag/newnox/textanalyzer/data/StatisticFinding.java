@@ -17,7 +17,7 @@ public class StatisticFinding extends Finding {
     private boolean Sort;
 
     public enum StatisticFindingType {
-        FOREIGN_WORDS, VOCABULARY_DISTRIBUTION, PUNCTUATION_DISTRIBUTION, COMMON_ABBREVIATION, COMMON_FOREIGN_WORD, WORDING, SENTENCE_COMPLEXITY;
+        FOREIGN_WORDS, VOCABULARY_DISTRIBUTION, PUNCTUATION_DISTRIBUTION, COMMON_ABBREVIATION, COMMON_FOREIGN_WORD, WORDING, SENTENCE_COMPLEXITY, READABILITY, LINE_SPACING;
     }
 
     public StatisticFinding() {
@@ -122,6 +122,12 @@ public class StatisticFinding extends Finding {
         case SENTENCE_COMPLEXITY:
             this.chartName = StatisticFindingConstants.SENTENCE_COMPLEXITY_TITLE;
             break;
+        case READABILITY:
+            this.chartName = StatisticFindingConstants.READABILITY_TITLE;
+            break;
+        case LINE_SPACING:
+            this.chartName = StatisticFindingConstants.LINE_SPACING_TITLE;
+            break;
         case FOREIGN_WORDS:
             this.chartName = StatisticFindingConstants.FOREIGN_TITLE;
             break;
@@ -154,6 +160,14 @@ public class StatisticFinding extends Finding {
             this.xAxisLabel = StatisticFindingConstants.SENTENCE_COMPLEXITY_XLABEL;
             this.yAxisLabel = StatisticFindingConstants.SENTENCE_COMPLEXITY_YLABEL;
             break;
+        case READABILITY:
+            this.xAxisLabel = StatisticFindingConstants.READABILITY_XLABEL;
+            this.yAxisLabel = StatisticFindingConstants.READABILITY_YLABEL;
+            break;
+        case LINE_SPACING:
+            this.xAxisLabel = StatisticFindingConstants.LINE_SPACING_XLABEL;
+            this.yAxisLabel = StatisticFindingConstants.LINE_SPACING_YLABEL;
+            break;
         case FOREIGN_WORDS:
             this.xAxisLabel = StatisticFindingConstants.FOREIGN_XLABEL;
             this.yAxisLabel = StatisticFindingConstants.FOREIGN_YLABEL;
@@ -7,6 +7,8 @@ public class StatisticFindingConstants {
     public static final String FOREIGN_TITLE = "Foreign word";
     public static final String WORDING_TITLE = "Wording";
     public static final String SENTENCE_COMPLEXITY_TITLE = "Sentence Length";
+    public static final String READABILITY_TITLE = "Readability";
+    public static final String LINE_SPACING_TITLE = "Line Spacing";
 
     public static final String VOCABULARY_XLABEL = "Word";
     public static final String PUNCTUATION_XLABEL = "Punctuation Mark";
@@ -14,6 +16,8 @@ public class StatisticFindingConstants {
     public static final String FOREIGN_XLABEL = "Foreign word";
     public static final String WORDING_XLABEL = "Word";
     public static final String SENTENCE_COMPLEXITY_XLABEL = "Word count";
+    public static final String READABILITY_XLABEL = "Chapter";
+    public static final String LINE_SPACING_XLABEL = "Spacing";
 
     public static final String VOCABULARY_YLABEL = "Frequency";
     public static final String PUNCTUATION_YLABEL = "Frequency";
@@ -21,6 +25,8 @@ public class StatisticFindingConstants {
     public static final String FOREIGN_YLABEL = "Frequency";
     public static final String WORDING_YLABEL = "Frequency";
     public static final String SENTENCE_COMPLEXITY_YLABEL = "Frequency";
+    public static final String READABILITY_YLABEL = "Flesch-Amstad";
+    public static final String LINE_SPACING_YLABEL = "Frequency";
 
     public static final String VOCABULARY_DATALINE = "Vocabulary";
     public static final String PUNCTUATION_DATALINE = "Punctuation Character";
@@ -28,4 +34,6 @@ public class StatisticFindingConstants {
     public static final String FOREIGN_DATALINE = "Foreign word";
     public static final String WORDING_DATALINE = "Wording";
     public static final String SENTENCE_COMPLEXITY_DATALINE = "Sentence Length";
+    public static final String READABILITY_DATALINE = "Readability";
+    public static final String LINE_SPACING_DATALINE = "Line Spacing";
 }
@@ -0,0 +1,87 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class maps the font names of extracted characters to integer ids
+ *
+ * <p>
+ * The fonts are interned by the {@link TextPositionStore} while the text is
+ * extracted, so analyzers can compare and count fonts as ints. Font sizes are
+ * compared in buckets of a tenth of a point, see {@link #toSizeBucket(float)}.
+ * </p>
+ *
+ * <p>
+ * There is one table per document. It is created by the extraction or by
+ * reading the cached pages and is shared by all pages of the document, even
+ * if they are extracted by several threads, so the ids of all pages are
+ * comparable. Pages that are reused from an earlier revision keep their
+ * table and the changed pages are extracted into it. The table is collected
+ * together with the pages.
+ * </p>
+ *
+ * <p>
+ * The ids are only valid within their table. Pages are cached with the font
+ * names, see {@link PDFPageSerializer}.
+ * </p>
+ *
+ */
+public class FontTable {
+    private static final int SIZE_BUCKETS_PER_POINT = 10;
+
+    private final Map<String, Integer> ids;
+    private final List<String> fontNames;
+
+    public FontTable() {
+        ids = new HashMap<>();
+        fontNames = new ArrayList<>();
+    }
+
+    /**
+     * Returns the id of the given font name and adds the name to the table
+     * if it is not known yet
+     *
+     * @param fontName
+     *            the name of the font, may be null if the font has no name
+     * @returns the id of the font name
+     */
+    public synchronized int getId(String fontName) {
+        Integer id = ids.get(fontName);
+        if (id == null) {
+            id = fontNames.size();
+            ids.put(fontName, id);
+            fontNames.add(fontName);
+        }
+        return id;
+    }
+
+    /**
+     * @param id
+     *            the id of a font
+     * @returns the name of the font, may be null
+     */
+    public synchronized String getFontName(int id) {
+        return fontNames.get(id);
+    }
+
+    /**
+     * @returns the number of distinct fonts, all ids are lower than this
+     */
+    public synchronized int size() {
+        return fontNames.size();
+    }
+
+    /**
+     * @param fontSize
+     *            a font size in points
+     * @returns the bucket of the font size, font sizes that differ by less
+     *          than a twentieth of a point share a bucket
+     */
+    public static int toSizeBucket(float fontSize) {
+        return Math.round(fontSize * SIZE_BUCKETS_PER_POINT);
+    }
+
+}
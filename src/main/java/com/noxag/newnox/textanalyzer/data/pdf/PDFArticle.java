@@ -2,6 +2,7 @@ package com.noxag.newnox.textanalyzer.data.pdf;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PDFArticle implements PDFObject {
     private List<PDFParagraph> paragraphs;
@@ -29,6 +30,11 @@ public class PDFArticle implements PDFObject {
         return words;
     }
 
+    @Override
+    public void forEachWord(Consumer<TextPositionSequence> wordConsumer) {
+        paragraphs.forEach(paragraph -> paragraph.forEachWord(wordConsumer));
+    }
+
     public PDFParagraph getFirstParagraph() {
         return paragraphs.get(0);
     }
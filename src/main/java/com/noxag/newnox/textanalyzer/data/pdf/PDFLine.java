@@ -4,8 +4,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import org.apache.pdfbox.text.TextPosition;
-
 /**
  * 
  * @author Tobias.Schmidt@de.ibm.com
@@ -50,10 +48,7 @@ public class PDFLine implements PDFObject {
         if (this.getFirstWord() == null) {
             return null;
         }
-        List<TextPosition> charPositions = new ArrayList<>();
-        charPositions.addAll(this.getFirstWord().getTextPositions());
-        charPositions.addAll(this.getLastWord().getTextPositions());
-        return new TextPositionSequence(charPositions, this.getFirstWord().getPageIndex());
+        return TextPositionSequence.concat(this.getFirstWord(), this.getLastWord());
     }
 
     public void addAll(List<TextPositionSequence> words) {
@@ -1,9 +1,19 @@
 package com.noxag.newnox.textanalyzer.data.pdf;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PDFObject {
 
     public List<TextPositionSequence> getWords();
 
+    /**
+     * Hands every word to the consumer in reading order, without collecting
+     * them in a new list like {@link #getWords()} does for the objects that
+     * contain several lines
+     */
+    public default void forEachWord(Consumer<TextPositionSequence> wordConsumer) {
+        getWords().forEach(wordConsumer);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.noxag.newnox.textanalyzer.data.pdf;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 
@@ -31,6 +32,11 @@ public class PDFPage implements PDFObject {
         return words;
     }
 
+    @Override
+    public void forEachWord(Consumer<TextPositionSequence> wordConsumer) {
+        articles.forEach(article -> article.forEachWord(wordConsumer));
+    }
+
     public List<PDFArticle> getArticles() {
         return articles;
     }
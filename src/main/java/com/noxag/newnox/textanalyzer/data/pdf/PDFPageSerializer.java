@@ -0,0 +1,162 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class converts extracted {@link PDFPage}s into a compact binary form
+ * and back
+ *
+ * <p>
+ * Every page is written with its {@link TextPositionStore}s, followed by the
+ * article, paragraph, line and word structure. Words are written as ranges of
+ * the stores, so the whole text and geometry of a page are read back with a
+ * few bulk copies.
+ * </p>
+ *
+ * <p>
+ * The stores are written with the names of their fonts. All pages that are
+ * read at once share a new {@link FontTable}.
+ * </p>
+ *
+ */
+public class PDFPageSerializer {
+
+    /**
+     * Writes the pages in the format read by {@link #read(ByteBuffer)}
+     *
+     * @param pages
+     *            the pages to be written
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if the stream can not be written
+     */
+    public static void write(List<PDFPage> pages, DataOutputStream out) throws IOException {
+        out.writeInt(pages.size());
+        for (PDFPage page : pages) {
+            writePage(page, out);
+        }
+    }
+
+    /**
+     * Reads pages written by {@link #write(List, DataOutputStream)}
+     *
+     * @param buffer
+     *            the buffer positioned at the start of the pages
+     * @returns the pages
+     */
+    public static List<PDFPage> read(ByteBuffer buffer) {
+        int pageCount = buffer.getInt();
+        List<PDFPage> pages = new ArrayList<>(pageCount);
+        FontTable fontTable = new FontTable();
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(readPage(buffer, fontTable));
+        }
+        return pages;
+    }
+
+    private static void writePage(PDFPage page, DataOutputStream out) throws IOException {
+        Map<TextPositionStore, Integer> storeIndices = new IdentityHashMap<>();
+        List<TextPositionStore> stores = new ArrayList<>();
+        page.forEachWord(word -> {
+            if (!storeIndices.containsKey(word.store)) {
+                storeIndices.put(word.store, stores.size());
+                stores.add(word.store);
+            }
+        });
+
+        out.writeBoolean(page.getPageNum() != null);
+        if (page.getPageNum() != null) {
+            out.writeInt(page.getPageNum());
+        }
+        out.writeInt(stores.size());
+        for (TextPositionStore store : stores) {
+            store.writeTo(out);
+        }
+        out.writeInt(page.getArticles().size());
+        for (PDFArticle article : page.getArticles()) {
+            out.writeInt(article.getParagraphs().size());
+            for (PDFParagraph paragraph : article.getParagraphs()) {
+                out.writeInt(paragraph.getLines().size());
+                for (PDFLine line : paragraph.getLines()) {
+                    out.writeInt(line.getWords().size());
+                    for (TextPositionSequence word : line.getWords()) {
+                        writeWord(word, storeIndices.get(word.store), out);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeWord(TextPositionSequence word, int storeIndex, DataOutputStream out)
+            throws IOException {
+        out.writeInt(storeIndex);
+        out.writeInt(word.start);
+        out.writeInt(word.end);
+        out.writeInt(word.pageIndex);
+        out.writeBoolean(word.hasWordSeperator);
+        out.writeInt(word.ranges == null ? 0 : word.ranges.length);
+        if (word.ranges != null) {
+            for (int index : word.ranges) {
+                out.writeInt(index);
+            }
+        }
+    }
+
+    private static PDFPage readPage(ByteBuffer buffer, FontTable fontTable) {
+        Integer pageNum = buffer.get() != 0 ? buffer.getInt() : null;
+        int storeCount = buffer.getInt();
+        List<TextPositionStore> stores = new ArrayList<>(storeCount);
+        for (int i = 0; i < storeCount; i++) {
+            stores.add(TextPositionStore.readFrom(buffer, fontTable));
+        }
+        int articleCount = buffer.getInt();
+        List<PDFArticle> articles = new ArrayList<>(articleCount);
+        for (int a = 0; a < articleCount; a++) {
+            PDFArticle article = new PDFArticle();
+            int paragraphCount = buffer.getInt();
+            for (int p = 0; p < paragraphCount; p++) {
+                PDFParagraph paragraph = new PDFParagraph();
+                int lineCount = buffer.getInt();
+                for (int l = 0; l < lineCount; l++) {
+                    int wordCount = buffer.getInt();
+                    List<TextPositionSequence> words = new ArrayList<>(wordCount);
+                    for (int w = 0; w < wordCount; w++) {
+                        words.add(readWord(buffer, stores));
+                    }
+                    paragraph.getLines().add(new PDFLine(words));
+                }
+                article.getParagraphs().add(paragraph);
+            }
+            articles.add(article);
+        }
+        return new PDFPage(articles, pageNum);
+    }
+
+    private static TextPositionSequence readWord(ByteBuffer buffer, List<TextPositionStore> stores) {
+        TextPositionStore store = stores.get(buffer.getInt());
+        int start = buffer.getInt();
+        int end = buffer.getInt();
+        int pageIndex = buffer.getInt();
+        boolean hasWordSeperator = buffer.get() != 0;
+        int rangeCount = buffer.getInt();
+        if (rangeCount == 0) {
+            return new TextPositionSequence(store, start, end, pageIndex, hasWordSeperator);
+        }
+        int[] ranges = new int[rangeCount];
+        buffer.asIntBuffer().get(ranges);
+        buffer.position(buffer.position() + rangeCount * Integer.BYTES);
+        return new TextPositionSequence(store, start, end, ranges, pageIndex, hasWordSeperator);
+    }
+
+    private PDFPageSerializer() {
+        // hide constructor, because this is a completely static class
+    }
+
+}
@@ -2,6 +2,7 @@ package com.noxag.newnox.textanalyzer.data.pdf;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PDFParagraph implements PDFObject {
     private List<PDFLine> lines;
@@ -33,6 +34,11 @@ public class PDFParagraph implements PDFObject {
         return words;
     }
 
+    @Override
+    public void forEachWord(Consumer<TextPositionSequence> wordConsumer) {
+        lines.forEach(line -> line.forEachWord(wordConsumer));
+    }
+
     public void add(PDFLine pdfLine) {
         if (!pdfLine.getWords().isEmpty()) {
             this.getLines().add(pdfLine);
@@ -0,0 +1,202 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is a flattened, index based view on a list of {@link PDFPage}s
+ *
+ * <p>
+ * All words, lines and paragraphs of the pages are numbered in document order.
+ * Every page, paragraph and line knows the range of ordinals of its children,
+ * and every word, line and paragraph knows the ordinal of its parent. The
+ * index is built once, afterwards all lists returned are unmodifiable views
+ * without any copying.
+ * </p>
+ *
+ * <p>
+ * The index is a snapshot: later changes to the pages are not reflected.
+ * </p>
+ *
+ */
+public class PDFTextIndex {
+    private final List<PDFPage> pages;
+    private final List<PDFParagraph> paragraphs;
+    private final List<PDFLine> lines;
+    private final List<TextPositionSequence> words;
+
+    private final int[] pageParagraphStart;
+    private final int[] pageLineStart;
+    private final int[] pageWordStart;
+    private final int[] paragraphLineStart;
+    private final int[] paragraphWordStart;
+    private final int[] lineWordStart;
+
+    private final int[] paragraphPage;
+    private final int[] lineParagraph;
+    private final int[] wordLine;
+
+    private PDFTextIndex(List<PDFPage> pages) {
+        List<PDFParagraph> paragraphList = new ArrayList<>();
+        List<PDFLine> lineList = new ArrayList<>();
+        List<TextPositionSequence> wordList = new ArrayList<>();
+        pageParagraphStart = new int[pages.size() + 1];
+        pageLineStart = new int[pages.size() + 1];
+        pageWordStart = new int[pages.size() + 1];
+        for (int page = 0; page < pages.size(); page++) {
+            pageParagraphStart[page] = paragraphList.size();
+            pageLineStart[page] = lineList.size();
+            pageWordStart[page] = wordList.size();
+            for (PDFArticle article : pages.get(page).getArticles()) {
+                for (PDFParagraph paragraph : article.getParagraphs()) {
+                    paragraphList.add(paragraph);
+                    for (PDFLine line : paragraph.getLines()) {
+                        lineList.add(line);
+                        wordList.addAll(line.getWords());
+                    }
+                }
+            }
+        }
+        pageParagraphStart[pages.size()] = paragraphList.size();
+        pageLineStart[pages.size()] = lineList.size();
+        pageWordStart[pages.size()] = wordList.size();
+
+        paragraphLineStart = new int[paragraphList.size() + 1];
+        paragraphWordStart = new int[paragraphList.size() + 1];
+        lineWordStart = new int[lineList.size() + 1];
+        paragraphPage = new int[paragraphList.size()];
+        lineParagraph = new int[lineList.size()];
+        wordLine = new int[wordList.size()];
+
+        int paragraph = 0;
+        int line = 0;
+        int word = 0;
+        for (int page = 0; page < pages.size(); page++) {
+            for (; paragraph < pageParagraphStart[page + 1]; paragraph++) {
+                paragraphPage[paragraph] = page;
+                paragraphLineStart[paragraph] = line;
+                paragraphWordStart[paragraph] = word;
+                for (PDFLine pdfLine : paragraphList.get(paragraph).getLines()) {
+                    lineParagraph[line] = paragraph;
+                    lineWordStart[line] = word;
+                    Arrays.fill(wordLine, word, word + pdfLine.getWords().size(), line);
+                    word += pdfLine.getWords().size();
+                    line++;
+                }
+            }
+        }
+        paragraphLineStart[paragraphList.size()] = line;
+        paragraphWordStart[paragraphList.size()] = word;
+        lineWordStart[lineList.size()] = word;
+
+        this.pages = Collections.unmodifiableList(new ArrayList<>(pages));
+        this.paragraphs = Collections.unmodifiableList(paragraphList);
+        this.lines = Collections.unmodifiableList(lineList);
+        this.words = Collections.unmodifiableList(wordList);
+    }
+
+    /**
+     * Builds the index of the given pages
+     *
+     * @param pages
+     *            the pages in document order
+     * @returns the index of the pages
+     */
+    public static PDFTextIndex of(List<PDFPage> pages) {
+        return new PDFTextIndex(pages);
+    }
+
+    public List<PDFPage> getPages() {
+        return pages;
+    }
+
+    public List<PDFParagraph> getParagraphs() {
+        return paragraphs;
+    }
+
+    public List<PDFLine> getLines() {
+        return lines;
+    }
+
+    public List<TextPositionSequence> getWords() {
+        return words;
+    }
+
+    public List<PDFParagraph> getParagraphsOfPage(int page) {
+        return paragraphs.subList(pageParagraphStart[page], pageParagraphStart[page + 1]);
+    }
+
+    public List<PDFLine> getLinesOfPage(int page) {
+        return lines.subList(pageLineStart[page], pageLineStart[page + 1]);
+    }
+
+    public List<TextPositionSequence> getWordsOfPage(int page) {
+        return getWordsOfPages(page, page + 1);
+    }
+
+    /**
+     * @param fromPage
+     *            the ordinal of the first page (inclusive)
+     * @param toPage
+     *            the ordinal of the last page (exclusive)
+     * @returns the words of all pages in the given range
+     */
+    public List<TextPositionSequence> getWordsOfPages(int fromPage, int toPage) {
+        return words.subList(pageWordStart[fromPage], pageWordStart[toPage]);
+    }
+
+    public List<PDFLine> getLinesOfParagraph(int paragraph) {
+        return lines.subList(paragraphLineStart[paragraph], paragraphLineStart[paragraph + 1]);
+    }
+
+    public List<TextPositionSequence> getWordsOfParagraph(int paragraph) {
+        return words.subList(paragraphWordStart[paragraph], paragraphWordStart[paragraph + 1]);
+    }
+
+    public List<TextPositionSequence> getWordsOfLine(int line) {
+        return words.subList(lineWordStart[line], lineWordStart[line + 1]);
+    }
+
+    /**
+     * @returns the ordinal of the first word of the page, or the ordinal the
+     *          next word would have if the page is empty
+     */
+    public int getFirstWordOfPage(int page) {
+        return pageWordStart[page];
+    }
+
+    /**
+     * @returns the ordinal of the first word of the paragraph, or the ordinal
+     *          the next word would have if the paragraph is empty
+     */
+    public int getFirstWordOfParagraph(int paragraph) {
+        return paragraphWordStart[paragraph];
+    }
+
+    public int getFirstWordOfLine(int line) {
+        return lineWordStart[line];
+    }
+
+    public int getLineOfWord(int word) {
+        return wordLine[word];
+    }
+
+    public int getParagraphOfLine(int line) {
+        return lineParagraph[line];
+    }
+
+    public int getPageOfParagraph(int paragraph) {
+        return paragraphPage[paragraph];
+    }
+
+    public int getPageOfLine(int line) {
+        return paragraphPage[lineParagraph[line]];
+    }
+
+    public int getPageOfWord(int word) {
+        return getPageOfLine(wordLine[word]);
+    }
+
+}
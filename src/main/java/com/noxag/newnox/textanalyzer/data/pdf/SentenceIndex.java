@@ -0,0 +1,83 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the sentence boundaries of a {@link PDFTextIndex}
+ *
+ * <p>
+ * A sentence is a range of word ordinals of the index. Sentences never cross
+ * paragraphs and every word belongs to exactly one sentence.
+ * </p>
+ *
+ */
+public class SentenceIndex {
+    private final PDFTextIndex textIndex;
+    private final int[] sentenceStart;
+
+    /**
+     * @param textIndex
+     *            the words that have been segmented
+     * @param sentenceStart
+     *            the ordinal of the first word of every sentence, followed by
+     *            the number of words
+     */
+    public SentenceIndex(PDFTextIndex textIndex, int[] sentenceStart) {
+        this.textIndex = textIndex;
+        this.sentenceStart = sentenceStart;
+    }
+
+    public PDFTextIndex getTextIndex() {
+        return textIndex;
+    }
+
+    /**
+     * @returns the number of sentences
+     */
+    public int size() {
+        return sentenceStart.length - 1;
+    }
+
+    /**
+     * @returns the ordinal of the first word of the sentence
+     */
+    public int getStart(int sentence) {
+        return sentenceStart[sentence];
+    }
+
+    /**
+     * @returns the ordinal after the last word of the sentence
+     */
+    public int getEnd(int sentence) {
+        return sentenceStart[sentence + 1];
+    }
+
+    public List<TextPositionSequence> getWords(int sentence) {
+        return textIndex.getWords().subList(getStart(sentence), getEnd(sentence));
+    }
+
+    /**
+     * Returns the sentence split into the lines it covers, for example to
+     * mark the sentence in the document
+     */
+    public List<PDFLine> getLines(int sentence) {
+        List<PDFLine> lines = new ArrayList<>();
+        int word = getStart(sentence);
+        while (word < getEnd(sentence)) {
+            int line = textIndex.getLineOfWord(word);
+            int lineEnd = Math.min(getEnd(sentence), textIndex.getFirstWordOfLine(line + 1));
+            lines.add(new PDFLine(new ArrayList<>(textIndex.getWords().subList(word, lineEnd))));
+            word = lineEnd;
+        }
+        return lines;
+    }
+
+    /**
+     * @returns the ordinal of the page the sentence starts on
+     */
+    public int getPage(int sentence) {
+        return textIndex.getPageOfWord(getStart(sentence));
+    }
+
+}
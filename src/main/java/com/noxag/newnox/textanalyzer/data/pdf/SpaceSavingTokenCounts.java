@@ -0,0 +1,198 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * This class estimates the most frequent tokens with the Space-Saving
+ * algorithm in a fixed amount of memory
+ *
+ * <p>
+ * At most {@code capacity} tokens are counted. If a new token arrives while
+ * all counters are in use, it takes over the counter of the least frequent
+ * token and inherits its count. So counts may be overestimated by at most
+ * {@link #getError(int)}, but every token that occurs more often than
+ * {@code n / capacity} times in {@code n} added tokens is guaranteed to be
+ * counted.
+ * </p>
+ *
+ * <p>
+ * The memory does not grow with the number of distinct tokens, so a single
+ * counter can aggregate the tokens of many documents that share a
+ * {@link TokenDictionary}.
+ * </p>
+ *
+ */
+public class SpaceSavingTokenCounts implements TokenCounter {
+    private static final int NO_ENTRY = -1;
+
+    private final int[] tokens;
+    private final int[] counts;
+    private final int[] errors;
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final int[] table;
+    private int size;
+
+    /**
+     * @param capacity
+     *            the maximum number of counted tokens
+     */
+    public SpaceSavingTokenCounts(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        tokens = new int[capacity];
+        counts = new int[capacity];
+        errors = new int[capacity];
+        heap = new int[capacity];
+        heapIndex = new int[capacity];
+        table = new int[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        Arrays.fill(table, NO_ENTRY);
+    }
+
+    @Override
+    public void add(int token) {
+        int entry = find(token);
+        if (entry != NO_ENTRY) {
+            counts[entry]++;
+            siftDown(heapIndex[entry]);
+            return;
+        }
+        if (size < tokens.length) {
+            entry = size;
+            tokens[entry] = token;
+            counts[entry] = 1;
+            errors[entry] = 0;
+            insert(entry);
+            heap[size] = entry;
+            heapIndex[entry] = size++;
+            siftUp(heapIndex[entry]);
+        } else {
+            // replace the least frequent token
+            entry = heap[0];
+            remove(tokens[entry]);
+            tokens[entry] = token;
+            errors[entry] = counts[entry];
+            counts[entry]++;
+            insert(entry);
+            siftDown(0);
+        }
+    }
+
+    @Override
+    public int getCount(int token) {
+        int entry = find(token);
+        return entry == NO_ENTRY ? 0 : counts[entry];
+    }
+
+    /**
+     * @param token
+     *            the id of a token
+     * @returns by how much the count of the token may be overestimated
+     */
+    public int getError(int token) {
+        int entry = find(token);
+        return entry == NO_ENTRY ? 0 : errors[entry];
+    }
+
+    @Override
+    public void forEachToken(IntConsumer action) {
+        for (int entry = 0; entry < size; entry++) {
+            action.accept(tokens[entry]);
+        }
+    }
+
+    /**
+     * @returns the number of counted tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    private int find(int token) {
+        int mask = table.length - 1;
+        for (int slot = hash(token) & mask; table[slot] != NO_ENTRY; slot = (slot + 1) & mask) {
+            if (tokens[table[slot]] == token) {
+                return table[slot];
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int slot = hash(tokens[entry]) & mask;
+        while (table[slot] != NO_ENTRY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    /**
+     * Removes a token from the linear probing table and moves the following
+     * entries back, so no lookup stops at the gap
+     */
+    private void remove(int token) {
+        int mask = table.length - 1;
+        int slot = hash(token) & mask;
+        while (tokens[table[slot]] != token) {
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (slot = (gap + 1) & mask; table[slot] != NO_ENTRY; slot = (slot + 1) & mask) {
+            int home = hash(tokens[table[slot]]) & mask;
+            // the entry may fill the gap if its home slot is not between the
+            // gap and its current slot
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                table[gap] = table[slot];
+                gap = slot;
+            }
+        }
+        table[gap] = NO_ENTRY;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[heap[parent]] <= counts[heap[index]]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[heap[left]] < counts[heap[smallest]]) {
+                smallest = left;
+            }
+            if (right < size && counts[heap[right]] < counts[heap[smallest]]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int entry = heap[i];
+        heap[i] = heap[j];
+        heap[j] = entry;
+        heapIndex[heap[i]] = i;
+        heapIndex[heap[j]] = j;
+    }
+
+    private static int hash(int token) {
+        int hash = token * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -1,128 +1,230 @@
 package com.noxag.newnox.textanalyzer.data.pdf;
 
+import java.util.Arrays;
 import java.util.List;
 
-import org.apache.pdfbox.text.TextPosition;
-
-import com.noxag.newnox.textanalyzer.util.PDFTextAnalyzerUtil;
-
 /**
  * This class represents a single word
  * 
+ * <p>
+ * A word is a view on a range of characters in a {@link TextPositionStore}.
+ * Sequences that are joined from several words, like a whole line, keep one
+ * range per part.
+ * </p>
+ * 
  * @author Tobias.Schmidt@de.ibm.com
  *
  */
 public class TextPositionSequence implements CharSequence {
-    final List<TextPosition> textPositions;
+    final TextPositionStore store;
     final int start;
     final int end;
+    final int[] ranges;
     final int pageIndex;
     final boolean hasWordSeperator;
 
-    public TextPositionSequence(List<TextPosition> textPositions, int pageIndex) {
-        this(textPositions, 0, textPositions.size() - 1, pageIndex);
-    }
-
-    public TextPositionSequence(List<TextPosition> textPositions, int pageIndex, boolean hasWordSeperator) {
-        this(new TextPositionSequence(textPositions, pageIndex), hasWordSeperator);
+    public TextPositionSequence(TextPositionStore store, int start, int end, int pageIndex) {
+        this(store, start, end, pageIndex, false);
     }
 
-    public TextPositionSequence(List<TextPosition> textPositions, int start, int end, int pageIndex) {
-        this(textPositions, start, end, pageIndex, false);
+    public TextPositionSequence(TextPositionSequence copyMe, boolean hasWordSeperator) {
+        this(copyMe.store, copyMe.start, copyMe.end, copyMe.ranges, copyMe.pageIndex, hasWordSeperator);
     }
 
-    public TextPositionSequence(TextPositionSequence copyMe, boolean hasWordSeperator) {
-        this(copyMe.getTextPositions(), copyMe.getStart(), copyMe.getEnd(), copyMe.getPageIndex(), hasWordSeperator);
+    /**
+     * @param store
+     *            the store that holds the characters
+     * @param start
+     *            the index of the first character in the store
+     * @param end
+     *            the index of the last character in the store (inclusive)
+     * @param pageIndex
+     *            the 1-based pageIndex
+     * @param hasWordSeperator
+     *            whether the word is followed by a word separator
+     */
+    public TextPositionSequence(TextPositionStore store, int start, int end, int pageIndex,
+            boolean hasWordSeperator) {
+        this(store, start, end, null, pageIndex, hasWordSeperator);
     }
 
-    public TextPositionSequence(List<TextPosition> textPositions, int start, int end, int pageIndex,
+    TextPositionSequence(TextPositionStore store, int start, int end, int[] ranges, int pageIndex,
             boolean hasWordSeperator) {
-        this.textPositions = textPositions;
+        this.store = store;
         this.start = start;
         this.end = end;
+        this.ranges = ranges;
         this.pageIndex = pageIndex;
         this.hasWordSeperator = hasWordSeperator;
     }
 
+    /**
+     * Joins two sequences of the same page to a single sequence, that starts
+     * with the characters of the first and ends with the characters of the
+     * second sequence
+     * 
+     * @param first
+     *            the leading sequence
+     * @param second
+     *            the trailing sequence
+     * @returns the joined sequence
+     */
+    public static TextPositionSequence concat(TextPositionSequence first, TextPositionSequence second) {
+        if (first.store != second.store) {
+            throw new IllegalArgumentException("Sequences of different pages can not be joined");
+        }
+        int[] firstRanges = first.getRanges();
+        int[] secondRanges = second.getRanges();
+        int[] ranges = Arrays.copyOf(firstRanges, firstRanges.length + secondRanges.length);
+        System.arraycopy(secondRanges, 0, ranges, firstRanges.length, secondRanges.length);
+        return new TextPositionSequence(first.store, first.start, second.end, ranges, first.pageIndex, false);
+    }
+
+    /**
+     * Joins several sequences of the same page to a single sequence, like
+     * {@link #concat(TextPositionSequence, TextPositionSequence)}, but copies
+     * the ranges of every sequence only once
+     * 
+     * @param sequences
+     *            the sequences in their order, at least one
+     * @returns the joined sequence
+     */
+    public static TextPositionSequence concat(List<TextPositionSequence> sequences) {
+        TextPositionSequence first = sequences.get(0);
+        TextPositionSequence last = sequences.get(sequences.size() - 1);
+        int length = 0;
+        for (TextPositionSequence sequence : sequences) {
+            if (sequence.store != first.store) {
+                throw new IllegalArgumentException("Sequences of different pages can not be joined");
+            }
+            length += sequence.getRanges().length;
+        }
+        int[] ranges = new int[length];
+        int offset = 0;
+        for (TextPositionSequence sequence : sequences) {
+            int[] sequenceRanges = sequence.getRanges();
+            System.arraycopy(sequenceRanges, 0, ranges, offset, sequenceRanges.length);
+            offset += sequenceRanges.length;
+        }
+        return new TextPositionSequence(first.store, first.start, last.end, ranges, first.pageIndex, false);
+    }
+
     @Override
     public int length() {
-        return end - start;
+        if (ranges == null) {
+            return end - start + 1;
+        }
+        int length = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            length += ranges[i + 1] - ranges[i] + 1;
+        }
+        return length;
     }
 
     @Override
     public char charAt(int index) {
-        TextPosition textPosition = textPositionAt(index);
-        String text = textPosition.getUnicode();
-        return text.charAt(0);
-
+        return store.charAt(storeIndex(index));
     }
 
     @Override
     public TextPositionSequence subSequence(int start, int end) {
-        return new TextPositionSequence(textPositions, this.start + start, this.start + end, this.pageIndex);
+        if (ranges == null) {
+            return new TextPositionSequence(store, this.start + start, this.start + end - 1, this.pageIndex);
+        }
+        TextPositionSequence subSequence = null;
+        for (int i = start; i < end; i++) {
+            int index = storeIndex(i);
+            TextPositionSequence character = new TextPositionSequence(store, index, index, this.pageIndex);
+            subSequence = subSequence == null ? character : concat(subSequence, character);
+        }
+        return subSequence;
     }
 
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder(length());
-        for (int i = 0; i <= length(); i++) {
-            builder.append(charAt(i));
+        int[] ranges = getRanges();
+        for (int i = 0; i < ranges.length; i += 2) {
+            store.appendTo(builder, ranges[i], ranges[i + 1]);
         }
         return builder.toString();
     }
 
-    public TextPosition textPositionAt(int index) {
-        return textPositions.get(start + index);
-    }
-
     public float getX() {
-        return textPositions.get(start).getXDirAdj();
+        return store.getXDirAdj(start);
     }
 
     public float getY() {
-        return textPositions.get(start).getPageHeight() - textPositions.get(start).getYDirAdj();
+        return store.getPageHeight() - store.getYDirAdj(start);
     }
 
     public float getWidth() {
-        TextPosition first = textPositions.get(start);
-        TextPosition last = textPositions.get(end);
-        return last.getWidthDirAdj() + last.getXDirAdj() - first.getXDirAdj();
+        return store.getWidthDirAdj(end) + store.getXDirAdj(end) - store.getXDirAdj(start);
     }
 
     public float getHeight() {
-        TextPosition first = textPositions.get(start);
-        TextPosition last = textPositions.get(end);
-        float lineSpacing = first.getYDirAdj() - last.getYDirAdj();
-        return last.getHeightDir() * 1.1f + lineSpacing;
+        float lineSpacing = store.getYDirAdj(start) - store.getYDirAdj(end);
+        return store.getHeightDir(end) * 1.1f + lineSpacing;
     }
 
     /**
-     * 
-     * @returns the 1-base pageIndex
+     * @returns the height of the page the sequence has been extracted from,
+     *          {@link #getY()} is measured from its bottom
      */
-    public int getPageIndex() {
-        return pageIndex;
+    public float getPageHeight() {
+        return store.getPageHeight();
     }
 
-    public List<TextPosition> getTextPositions() {
-        return textPositions;
+    /**
+     * @returns the font size of the first character
+     */
+    public float getFontSize() {
+        return store.getFontSize(start);
     }
 
-    public int getStart() {
-        return start;
+    /**
+     * @returns the font name of the first character
+     */
+    public String getFontName() {
+        return store.getFontName(start);
     }
 
-    public int getEnd() {
-        return end;
+    /**
+     * @returns the {@link FontTable} id of the font of the first character
+     */
+    public int getFontId() {
+        return store.getFontId(start);
     }
 
-    public TextPosition getFirstTextPosition() {
-        return this.getTextPositions().get(0);
+    /**
+     * @returns the font table of the document, see {@link #getFontId()}
+     */
+    public FontTable getFontTable() {
+        return store.getFontTable();
     }
 
-    public TextPosition getLastTextPosition() {
-        List<TextPosition> positions = this.getTextPositions();
-        return positions.get(positions.size() - 1);
+    /**
+     * @returns the font size bucket of the first character
+     * @see FontTable#toSizeBucket(float)
+     */
+    public int getFontSizeBucket() {
+        return FontTable.toSizeBucket(store.getFontSize(start));
+    }
+
+    /**
+     * 
+     * @returns the 1-base pageIndex
+     */
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public TextPositionSequence getFirstCharacter() {
+        return new TextPositionSequence(store, start, start, pageIndex);
+    }
+
+    public TextPositionSequence getLastCharacter() {
+        return new TextPositionSequence(store, end, end, pageIndex);
     }
 
     public boolean contains(String sequence) {
@@ -130,7 +232,7 @@ public class TextPositionSequence implements CharSequence {
     }
 
     public boolean isPunctuationMark() {
-        return PDFTextAnalyzerUtil.isPunctuationMark(this);
+        return start == end && ranges == null && store.isPunctuationMark(start);
     }
 
     public boolean isNotPunctuationMark() {
@@ -138,11 +240,30 @@ public class TextPositionSequence implements CharSequence {
     }
 
     public boolean isBulletPoint() {
-        return PDFTextAnalyzerUtil.isBulletPoint(this);
+        return start == end && ranges == null && store.isBulletPoint(start);
     }
 
     public boolean isNotBulletPoint() {
         return !this.isBulletPoint();
     }
 
-}
\ No newline at end of file
+    private int[] getRanges() {
+        return ranges == null ? new int[] { start, end } : ranges;
+    }
+
+    private int storeIndex(int index) {
+        if (ranges == null) {
+            return start + index;
+        }
+        int offset = index;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int rangeLength = ranges[i + 1] - ranges[i] + 1;
+            if (offset < rangeLength) {
+                return ranges[i] + offset;
+            }
+            offset -= rangeLength;
+        }
+        throw new IndexOutOfBoundsException("index: " + index);
+    }
+
+}
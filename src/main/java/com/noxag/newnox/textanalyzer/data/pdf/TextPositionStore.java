@@ -0,0 +1,294 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.text.TextPosition;
+
+import com.noxag.newnox.textanalyzer.util.CharacterClassTable;
+
+/**
+ * This class holds the characters of a single extracted page in a compact,
+ * columnar form
+ *
+ * <p>
+ * Instead of keeping a PDFBox {@link TextPosition} per character, every
+ * character only keeps the values the analyzers need in primitive arrays that
+ * are indexed by the position of the character in the store. A
+ * {@link TextPositionSequence} is just a view on a range of this store.
+ * </p>
+ *
+ * <p>
+ * There is one store per page, so a page that is no longer referenced can be
+ * collected as a whole, even while the rest of the document is extracted.
+ * </p>
+ *
+ * <p>
+ * A store is filled by a single text stripper. It must not be modified after
+ * it has been handed to other threads. The fonts are interned into the
+ * {@link FontTable} of the document.
+ * </p>
+ *
+ */
+public class TextPositionStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private char[] text;
+    private byte[] flags;
+    private float[] xDirAdj;
+    private float[] yDirAdj;
+    private float[] widthDirAdj;
+    private float[] heightDir;
+    private float[] fontSize;
+    private int[] fontId;
+    private float pageHeight;
+    private final FontTable fontTable;
+    private Map<PDFont, Integer> fontIds;
+
+    /**
+     * @param fontTable
+     *            the font table of the document
+     */
+    public TextPositionStore(FontTable fontTable) {
+        this(INITIAL_CAPACITY, fontTable);
+    }
+
+    private TextPositionStore(int capacity, FontTable fontTable) {
+        this.fontTable = fontTable;
+        text = new char[capacity];
+        flags = new byte[capacity];
+        xDirAdj = new float[capacity];
+        yDirAdj = new float[capacity];
+        widthDirAdj = new float[capacity];
+        heightDir = new float[capacity];
+        fontSize = new float[capacity];
+        fontId = new int[capacity];
+        fontIds = new IdentityHashMap<>();
+    }
+
+    /**
+     * Appends a single character to the store
+     *
+     * @param textPosition
+     *            the character as extracted by PDFBox
+     * @returns the index of the character in this store
+     */
+    public int add(TextPosition textPosition) {
+        return add(textPosition, CharacterClassTable.classify(textPosition.getUnicode()));
+    }
+
+    /**
+     * Appends a single character that has already been classified
+     *
+     * @param textPosition
+     *            the character as extracted by PDFBox
+     * @param characterClass
+     *            the flags of the character, see {@link CharacterClassTable}
+     * @returns the index of the character in this store
+     */
+    public int add(TextPosition textPosition, int characterClass) {
+        ensureCapacity(size + 1);
+        String unicode = textPosition.getUnicode();
+        text[size] = unicode.charAt(0);
+        flags[size] = (byte) characterClass;
+        xDirAdj[size] = textPosition.getXDirAdj();
+        yDirAdj[size] = textPosition.getYDirAdj();
+        widthDirAdj[size] = textPosition.getWidthDirAdj();
+        heightDir[size] = textPosition.getHeightDir();
+        fontSize[size] = textPosition.getFontSize();
+        fontId[size] = getFontId(textPosition.getFont());
+        pageHeight = textPosition.getPageHeight();
+        return size++;
+    }
+
+    /**
+     * @returns the number of characters in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Releases the unused capacity, once the page is complete
+     */
+    public void trimToSize() {
+        resize(size);
+    }
+
+    char charAt(int index) {
+        return text[index];
+    }
+
+    boolean isPunctuationMark(int index) {
+        return CharacterClassTable.isPunctuationMark(flags[index]);
+    }
+
+    boolean isBulletPoint(int index) {
+        return CharacterClassTable.isBulletPoint(flags[index]);
+    }
+
+    float getXDirAdj(int index) {
+        return xDirAdj[index];
+    }
+
+    float getYDirAdj(int index) {
+        return yDirAdj[index];
+    }
+
+    float getWidthDirAdj(int index) {
+        return widthDirAdj[index];
+    }
+
+    float getHeightDir(int index) {
+        return heightDir[index];
+    }
+
+    float getFontSize(int index) {
+        return fontSize[index];
+    }
+
+    int getFontId(int index) {
+        return fontId[index];
+    }
+
+    String getFontName(int index) {
+        return fontTable.getFontName(fontId[index]);
+    }
+
+    FontTable getFontTable() {
+        return fontTable;
+    }
+
+    float getPageHeight() {
+        return pageHeight;
+    }
+
+    void appendTo(StringBuilder builder, int start, int end) {
+        builder.append(text, start, end - start + 1);
+    }
+
+    /**
+     * Writes the characters of this store in the format read by
+     * {@link #readFrom(ByteBuffer, FontTable)}. The font ids of the
+     * {@link FontTable} are written as indices into the list of font names
+     * used by this store, which is written, too.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        Map<Integer, Integer> localFontIds = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            localFontIds.putIfAbsent(fontId[i], localFontIds.size());
+        }
+        out.writeInt(size);
+        out.writeFloat(pageHeight);
+        out.writeInt(localFontIds.size());
+        for (int id : localFontIds.keySet()) {
+            String fontName = fontTable.getFontName(id);
+            out.writeBoolean(fontName != null);
+            if (fontName != null) {
+                out.writeUTF(fontName);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeChar(text[i]);
+        }
+        out.write(flags, 0, size);
+        for (float[] column : Arrays.asList(xDirAdj, yDirAdj, widthDirAdj, heightDir, fontSize)) {
+            for (int i = 0; i < size; i++) {
+                out.writeFloat(column[i]);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeInt(localFontIds.get(fontId[i]));
+        }
+    }
+
+    /**
+     * Reads a store written by {@link #writeTo(DataOutputStream)}. The
+     * columns are copied in bulk from the buffer.
+     * 
+     * @param fontTable
+     *            the table to intern the font names into
+     */
+    static TextPositionStore readFrom(ByteBuffer buffer, FontTable fontTable) {
+        int size = buffer.getInt();
+        TextPositionStore store = new TextPositionStore(size, fontTable);
+        store.size = size;
+        store.pageHeight = buffer.getFloat();
+        int[] tableFontIds = new int[buffer.getInt()];
+        for (int i = 0; i < tableFontIds.length; i++) {
+            tableFontIds[i] = fontTable.getId(buffer.get() != 0 ? readUTF(buffer) : null);
+        }
+        buffer.asCharBuffer().get(store.text);
+        buffer.position(buffer.position() + size * Character.BYTES);
+        buffer.get(store.flags);
+        for (float[] column : Arrays.asList(store.xDirAdj, store.yDirAdj, store.widthDirAdj, store.heightDir,
+                store.fontSize)) {
+            buffer.asFloatBuffer().get(column);
+            buffer.position(buffer.position() + size * Float.BYTES);
+        }
+        buffer.asIntBuffer().get(store.fontId);
+        buffer.position(buffer.position() + size * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            store.fontId[i] = tableFontIds[store.fontId[i]];
+        }
+        return store;
+    }
+
+    private static String readUTF(ByteBuffer buffer) {
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        byte[] bytes = new byte[Short.BYTES + length];
+        buffer.get(bytes);
+        try {
+            return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid font name", e);
+        }
+    }
+
+    private int getFontId(PDFont font) {
+        Integer id = fontIds.get(font);
+        if (id == null) {
+            id = fontTable.getId(getFontName(font));
+            fontIds.put(font, id);
+        }
+        return id;
+    }
+
+    private static String getFontName(PDFont font) {
+        if (font == null) {
+            return null;
+        }
+        if (font.getFontDescriptor() == null) {
+            return font.getName();
+        }
+        return font.getFontDescriptor().getFontName();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= text.length) {
+            return;
+        }
+        resize(Math.max(capacity, text.length + (text.length >> 1)));
+    }
+
+    private void resize(int newCapacity) {
+        text = Arrays.copyOf(text, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+        xDirAdj = Arrays.copyOf(xDirAdj, newCapacity);
+        yDirAdj = Arrays.copyOf(yDirAdj, newCapacity);
+        widthDirAdj = Arrays.copyOf(widthDirAdj, newCapacity);
+        heightDir = Arrays.copyOf(heightDir, newCapacity);
+        fontSize = Arrays.copyOf(fontSize, newCapacity);
+        fontId = Arrays.copyOf(fontId, newCapacity);
+    }
+
+}
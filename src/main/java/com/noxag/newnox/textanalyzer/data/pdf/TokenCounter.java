@@ -0,0 +1,50 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * This interface counts the occurrences of the tokens of a
+ * {@link TokenDictionary}
+ *
+ */
+public interface TokenCounter {
+
+    void add(int token);
+
+    /**
+     * @param token
+     *            the id of a token
+     * @returns how often the token has been added, estimated counters may
+     *          overestimate this
+     */
+    int getCount(int token);
+
+    /**
+     * Performs the action for every counted token
+     */
+    void forEachToken(IntConsumer action);
+
+    /**
+     * Selects the most frequent tokens with a bounded min-heap, so only the k
+     * best tokens are held at any time instead of sorting all tokens
+     *
+     * @param k
+     *            the maximum number of tokens
+     * @param filter
+     *            decides which tokens may be selected, it is called once per
+     *            counted token
+     * @returns the selected tokens, the most frequent first. Tokens with the
+     *          same count are ordered by their id.
+     */
+    default int[] getTopTokens(int k, IntPredicate filter) {
+        TopTokenSelector selector = new TopTokenSelector(k, this::getCount);
+        forEachToken(token -> {
+            if (filter.test(token)) {
+                selector.offer(token);
+            }
+        });
+        return selector.toArray();
+    }
+
+}
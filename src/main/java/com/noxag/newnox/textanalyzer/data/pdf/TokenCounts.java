@@ -0,0 +1,52 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * This class counts the occurrences of the tokens of a
+ * {@link TokenDictionary} in a plain int array indexed by the token id
+ *
+ */
+public class TokenCounts implements TokenCounter {
+    private int[] counts;
+
+    public TokenCounts() {
+        counts = new int[256];
+    }
+
+    @Override
+    public void add(int token) {
+        if (token >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(token + 1, counts.length * 2));
+        }
+        counts[token]++;
+    }
+
+    /**
+     * @param token
+     *            the id of a token
+     * @returns how often the token has been added
+     */
+    @Override
+    public int getCount(int token) {
+        return token < counts.length ? counts[token] : 0;
+    }
+
+    @Override
+    public void forEachToken(IntConsumer action) {
+        for (int token = 0; token < counts.length; token++) {
+            if (counts[token] > 0) {
+                action.accept(token);
+            }
+        }
+    }
+
+    /**
+     * @returns an upper bound for all tokens that have been added
+     */
+    public int getTokenBound() {
+        return counts.length;
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.Arrays;
+
+/**
+ * This class maps every normalized word of a document to an integer id
+ *
+ * <p>
+ * Words are normalized by converting every character to lower case. The
+ * lookup works on any {@link CharSequence}, so a {@link TextPositionSequence}
+ * can be mapped to its id without creating a String. The normalized words are
+ * kept in a single char array.
+ * </p>
+ *
+ * <p>
+ * One dictionary is shared by all algorithms of an analysis run, so all
+ * methods are synchronized.
+ * </p>
+ *
+ */
+public class TokenDictionary {
+    public static final int UNKNOWN_TOKEN = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size;
+    private int[] table;
+    private int[] hashes;
+    private int[] offsets;
+    private char[] characters;
+
+    public TokenDictionary() {
+        table = new int[INITIAL_CAPACITY * 2];
+        Arrays.fill(table, UNKNOWN_TOKEN);
+        hashes = new int[INITIAL_CAPACITY];
+        offsets = new int[INITIAL_CAPACITY + 1];
+        characters = new char[INITIAL_CAPACITY * 8];
+    }
+
+    /**
+     * Returns the id of the given word and adds the word to the dictionary if
+     * it is not known yet
+     *
+     * @param word
+     *            the word to be mapped
+     * @returns the id of the normalized word
+     */
+    public synchronized int getId(CharSequence word) {
+        int hash = hash(word);
+        int slot = findSlot(word, hash);
+        if (table[slot] != UNKNOWN_TOKEN) {
+            return table[slot];
+        }
+        int id = add(word, hash);
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the given word without adding it to the dictionary
+     *
+     * @param word
+     *            the word to be looked up
+     * @returns the id of the normalized word or {@link #UNKNOWN_TOKEN}
+     */
+    public synchronized int findId(CharSequence word) {
+        return table[findSlot(word, hash(word))];
+    }
+
+    /**
+     * @param id
+     *            the id of a word
+     * @returns the normalized word
+     */
+    public synchronized String getToken(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown token id: " + id);
+        }
+        return new String(characters, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    /**
+     * @returns the number of distinct words, all ids are lower than this
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int add(CharSequence word, int hash) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        int offset = offsets[size];
+        int length = word.length();
+        if (offset + length > characters.length) {
+            characters = Arrays.copyOf(characters, Math.max(offset + length, characters.length * 2));
+        }
+        for (int i = 0; i < length; i++) {
+            characters[offset + i] = Character.toLowerCase(word.charAt(i));
+        }
+        hashes[size] = hash;
+        offsets[size + 1] = offset + length;
+        return size++;
+    }
+
+    private int findSlot(CharSequence word, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != UNKNOWN_TOKEN) {
+            int id = table[slot];
+            if (hashes[id] == hash && matches(word, id)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(CharSequence word, int id) {
+        int offset = offsets[id];
+        int length = offsets[id + 1] - offset;
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (characters[offset + i] != Character.toLowerCase(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, UNKNOWN_TOKEN);
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != UNKNOWN_TOKEN) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    private static int hash(CharSequence word) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(word.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a list of words as ids of a {@link TokenDictionary}
+ *
+ * <p>
+ * The token at a position of the stream belongs to the word at the same
+ * position, so counting, windowing and matching can work on the ids and only
+ * go back to the words for the positions of the results.
+ * </p>
+ *
+ */
+public class TokenStream {
+    private final TokenDictionary dictionary;
+    private final List<TextPositionSequence> words;
+    private final int[] tokens;
+
+    private TokenStream(TokenDictionary dictionary, List<TextPositionSequence> words, int[] tokens) {
+        this.dictionary = dictionary;
+        this.words = words;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Maps every word to its id, unknown words are added to the dictionary
+     *
+     * @param words
+     *            the words of the stream
+     * @param dictionary
+     *            the dictionary of the document
+     * @returns the token stream of the words
+     */
+    public static TokenStream of(List<TextPositionSequence> words, TokenDictionary dictionary) {
+        int[] tokens = new int[words.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = dictionary.getId(words.get(i));
+        }
+        return new TokenStream(dictionary, Collections.unmodifiableList(words), tokens);
+    }
+
+    public TokenDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        return tokens.length;
+    }
+
+    public int getToken(int index) {
+        return tokens[index];
+    }
+
+    public TextPositionSequence getWord(int index) {
+        return words.get(index);
+    }
+
+    public List<TextPositionSequence> getWords() {
+        return words;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This class keeps the k most frequent of all offered tokens in a min-heap,
+ * whose root is the least frequent token kept so far
+ *
+ * @see TokenCounter#getTopTokens(int, java.util.function.IntPredicate)
+ */
+class TopTokenSelector {
+    private final IntUnaryOperator count;
+    private final int[] heap;
+    private int size;
+
+    TopTokenSelector(int k, IntUnaryOperator count) {
+        this.count = count;
+        this.heap = new int[Math.max(k, 0)];
+    }
+
+    void offer(int token) {
+        if (size < heap.length) {
+            heap[size] = token;
+            siftUp(size++);
+        } else if (size > 0 && isLess(heap[0], token)) {
+            heap[0] = token;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Sorts the kept tokens, the selector is empty afterwards
+     *
+     * @returns the kept tokens, the most frequent first
+     */
+    int[] toArray() {
+        int tokenCount = size;
+        // heap sort, the least frequent token is moved to the end first
+        while (size > 1) {
+            swap(0, --size);
+            siftDown(0);
+        }
+        size = 0;
+        return Arrays.copyOf(heap, tokenCount);
+    }
+
+    private boolean isLess(int token, int otherToken) {
+        int tokenCount = count.applyAsInt(token);
+        int otherCount = count.applyAsInt(otherToken);
+        return tokenCount < otherCount || tokenCount == otherCount && token > otherToken;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isLess(heap[index], heap[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isLess(heap[left], heap[smallest])) {
+                smallest = left;
+            }
+            if (right < size && isLess(heap[right], heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int token = heap[i];
+        heap[i] = heap[j];
+        heap[j] = token;
+    }
+
+}
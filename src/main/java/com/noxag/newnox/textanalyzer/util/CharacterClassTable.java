@@ -0,0 +1,65 @@
+package com.noxag.newnox.textanalyzer.util;
+
+/**
+ * This class classifies the characters of the extracted text with a lookup
+ * table indexed by the character
+ *
+ * <p>
+ * The class of a character is a combination of flags. A character without
+ * any flag belongs to a word. Bullet points are punctuation marks, too.
+ * </p>
+ *
+ */
+public class CharacterClassTable {
+    public static final int WORD_CHARACTER = 0;
+    public static final int PUNCTUATION_MARK = 1;
+    public static final int BULLET_POINT = 2;
+
+    private static final char[] PUNCTUATION_MARKS = { ',', '.', ':', ';', '!', '?', '(', ')', '-', '\u2013',
+            '\u2014', '"', '\'' };
+    private static final char[] BULLET_POINTS = { '\u2022', '\u2023', '\u25E6', '\u2043', '\u2219' };
+    private static final byte[] CLASSES = new byte['\u25E6' + 1];
+
+    static {
+        for (char punctuationMark : PUNCTUATION_MARKS) {
+            CLASSES[punctuationMark] = PUNCTUATION_MARK;
+        }
+        for (char bulletPoint : BULLET_POINTS) {
+            CLASSES[bulletPoint] = PUNCTUATION_MARK | BULLET_POINT;
+        }
+    }
+
+    /**
+     * @returns the flags of the character
+     */
+    public static int classify(char character) {
+        return character < CLASSES.length ? CLASSES[character] : WORD_CHARACTER;
+    }
+
+    /**
+     * A glyph may be extracted as several characters, like ligatures. It has
+     * the flags of all of its characters.
+     *
+     * @returns the combined flags of all characters
+     */
+    public static int classify(CharSequence unicode) {
+        int flags = WORD_CHARACTER;
+        for (int i = 0; i < unicode.length(); i++) {
+            flags |= classify(unicode.charAt(i));
+        }
+        return flags;
+    }
+
+    public static boolean isPunctuationMark(int flags) {
+        return (flags & PUNCTUATION_MARK) != 0;
+    }
+
+    public static boolean isBulletPoint(int flags) {
+        return (flags & BULLET_POINT) != 0;
+    }
+
+    private CharacterClassTable() {
+        // hide constructor, because this is a completely static class
+    }
+
+}
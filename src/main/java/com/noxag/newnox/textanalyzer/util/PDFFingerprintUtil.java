@@ -0,0 +1,213 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+
+/**
+ * This utils class computes fingerprints of PDF pages without extracting
+ * their text
+ *
+ * <p>
+ * The fingerprint of a page covers its content stream, its crop box, its
+ * rotation and everything its resources reference, like the font
+ * dictionaries with their encodings, ToUnicode maps and font programs and the
+ * streams of form XObjects with their own resources. Two pages with the same
+ * fingerprint produce the same extracted text.
+ * </p>
+ *
+ * <p>
+ * Only the dictionaries of images are covered, because their pixels do not
+ * change the text. Objects that are shared by several pages, like fonts, are
+ * only hashed once per document.
+ * </p>
+ *
+ */
+public class PDFFingerprintUtil {
+
+    /**
+     * Hashes COS objects deeply and remembers the digests of indirect
+     * objects, so shared resources are only read once
+     */
+    private static class ObjectDigester {
+        private final Map<COSBase, byte[]> indirectObjectDigests = new IdentityHashMap<>();
+        private final Set<COSBase> visitedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        void update(MessageDigest digest, COSBase object) throws IOException {
+            if (object instanceof COSObject) {
+                updateIndirect(digest, ((COSObject) object).getObject());
+            } else if (object instanceof COSStream) {
+                // streams are always indirect objects
+                updateIndirect(digest, object);
+            } else if (object instanceof COSDictionary) {
+                updateDictionary(digest, (COSDictionary) object);
+            } else if (object instanceof COSArray) {
+                digest.update((byte) '[');
+                for (COSBase element : (COSArray) object) {
+                    update(digest, element);
+                }
+                digest.update((byte) ']');
+            } else if (object instanceof COSName) {
+                updateString(digest, "/" + ((COSName) object).getName());
+            } else if (object instanceof COSString) {
+                digest.update((byte) '(');
+                digest.update(((COSString) object).getBytes());
+                digest.update((byte) ')');
+            } else if (object instanceof COSInteger) {
+                updateString(digest, "i" + ((COSInteger) object).longValue());
+            } else if (object instanceof COSFloat) {
+                updateString(digest, "f" + ((COSFloat) object).floatValue());
+            } else if (object instanceof COSBoolean) {
+                updateString(digest, "b" + ((COSBoolean) object).getValue());
+            } else {
+                updateString(digest, "null");
+            }
+        }
+
+        private void updateIndirect(MessageDigest digest, COSBase object) throws IOException {
+            if (object == null || !(object instanceof COSDictionary || object instanceof COSArray)) {
+                update(digest, object);
+                return;
+            }
+            byte[] objectDigest = indirectObjectDigests.get(object);
+            if (objectDigest == null) {
+                if (!visitedObjects.add(object)) {
+                    // a reference back to an object that is being hashed
+                    updateString(digest, "cycle");
+                    return;
+                }
+                MessageDigest innerDigest = createDigest();
+                if (object instanceof COSStream) {
+                    updateStreamObject(innerDigest, (COSStream) object);
+                } else {
+                    update(innerDigest, object);
+                }
+                objectDigest = innerDigest.digest();
+                indirectObjectDigests.put(object, objectDigest);
+                visitedObjects.remove(object);
+            }
+            digest.update(objectDigest);
+        }
+
+        private void updateDictionary(MessageDigest digest, COSDictionary dictionary) throws IOException {
+            List<COSName> keys = new ArrayList<>(dictionary.keySet());
+            keys.sort(null);
+            digest.update((byte) '<');
+            for (COSName key : keys) {
+                update(digest, key);
+                update(digest, dictionary.getItem(key));
+            }
+            digest.update((byte) '>');
+        }
+
+        private void updateStreamObject(MessageDigest digest, COSStream stream) throws IOException {
+            updateDictionary(digest, stream);
+            if (COSName.IMAGE.equals(stream.getCOSName(COSName.SUBTYPE))) {
+                return;
+            }
+            try (InputStream contents = stream.createRawInputStream()) {
+                updateStream(digest, contents);
+            }
+        }
+    }
+
+    /**
+     * @param document
+     *            the document to be fingerprinted
+     * @returns the fingerprints of all pages in page order
+     * @throws IOException
+     *             if a content stream can not be read
+     */
+    public static List<String> fingerprintPages(PDDocument document) throws IOException {
+        List<String> fingerprints = new ArrayList<>(document.getNumberOfPages());
+        ObjectDigester objectDigester = new ObjectDigester();
+        for (PDPage page : document.getPages()) {
+            fingerprints.add(fingerprint(page, objectDigester));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * @param page
+     *            the page to be fingerprinted
+     * @returns the hex encoded SHA-256 fingerprint of the page
+     * @throws IOException
+     *             if the content stream can not be read
+     */
+    public static String fingerprint(PDPage page) throws IOException {
+        return fingerprint(page, new ObjectDigester());
+    }
+
+    private static String fingerprint(PDPage page, ObjectDigester objectDigester) throws IOException {
+        MessageDigest digest = createDigest();
+        if (page.hasContents()) {
+            try (InputStream contents = page.getContents()) {
+                updateStream(digest, contents);
+            }
+        }
+        PDResources resources = page.getResources();
+        if (resources != null) {
+            objectDigester.update(digest, resources.getCOSObject());
+        }
+        PDRectangle cropBox = page.getCropBox();
+        updateString(digest, cropBox.getLowerLeftX() + " " + cropBox.getLowerLeftY() + " "
+                + cropBox.getUpperRightX() + " " + cropBox.getUpperRightY() + " " + page.getRotation());
+        return toHexString(digest.digest());
+    }
+
+    private static void updateStream(MessageDigest digest, InputStream contents) throws IOException {
+        byte[] buffer = new byte[16 * 1024];
+        int length;
+        while ((length = contents.read(buffer)) != -1) {
+            digest.update(buffer, 0, length);
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String string) {
+        digest.update(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHexString(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private PDFFingerprintUtil() {
+        // hide constructor, because this is a completely static class
+    }
+
+}
@@ -2,7 +2,7 @@ package com.noxag.newnox.textanalyzer.util;
 
 import static com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil.extractWords;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -20,40 +20,61 @@ import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
  *
  */
 public class PDFTextAnalyzerUtil {
-    private static String[] punctuationMarks = { ",", ".", ":", ";", "!", "?", "(", ")", "-", "", "", "\"", "'",
-            "\u2022", "\u2023", "\u25E6", "\u2043", "\u2219" };
-    private static String[] bulletPoints = { "\u2022", "\u2023", "\u25E6", "\u2043", "\u2219" };
-
     public static int getPunctuationMarkIndex(List<TextPosition> textPositions) {
-        int index = 0;
-        for (TextPosition pos : textPositions) {
-            if (Arrays.asList(punctuationMarks).contains(pos.toString())) {
+        for (int index = 0; index < textPositions.size(); index++) {
+            if (isPunctuationMark(textPositions.get(index))) {
                 return index;
             }
-            index++;
         }
         return -1;
     }
 
     public static boolean containsPunctuationMark(List<TextPosition> textPositions) {
-        return textPositions.stream().anyMatch(textPosition -> {
-            return Arrays.stream(punctuationMarks).anyMatch(textPosition.toString()::contains);
-        });
+        return getPunctuationMarkIndex(textPositions) != -1;
     }
 
     public static boolean containsBulletPoint(List<TextPosition> textPositions) {
-        return textPositions.stream().anyMatch(textPosition -> {
-            return Arrays.stream(bulletPoints).anyMatch(textPosition.toString()::contains);
-        });
+        for (TextPosition textPosition : textPositions) {
+            if (isBulletPoint(textPosition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @see CharacterClassTable
+     */
+    public static boolean isPunctuationMark(TextPosition textPosition) {
+        return CharacterClassTable.isPunctuationMark(CharacterClassTable.classify(textPosition.getUnicode()));
+    }
+
+    /**
+     * @see CharacterClassTable
+     */
+    public static boolean isBulletPoint(TextPosition textPosition) {
+        return CharacterClassTable.isBulletPoint(CharacterClassTable.classify(textPosition.getUnicode()));
     }
 
     public static boolean isPunctuationMark(TextPositionSequence posSequence) {
-        return posSequence.getTextPositions().size() == 1 && containsPunctuationMark(posSequence.getTextPositions());
+        return posSequence.isPunctuationMark();
     }
 
     public static boolean isBulletPoint(TextPositionSequence textPositionSequence) {
-        return textPositionSequence.getTextPositions().size() == 1
-                && containsBulletPoint(textPositionSequence.getTextPositions());
+        return textPositionSequence.isBulletPoint();
+    }
+
+    /**
+     * Splits an abbreviation into the words the text stripper extracts for
+     * it, for example 'z.b.' into 'z', '.', 'b' and '.'
+     */
+    public static List<String> splitAbbreviation(String abbreviation) {
+        List<String> words = new ArrayList<>();
+        for (String abbreviationPart : abbreviation.split("\\.")) {
+            words.add(abbreviationPart);
+            words.add(".");
+        }
+        return words;
     }
 
     /**
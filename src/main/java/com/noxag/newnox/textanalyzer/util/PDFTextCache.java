@@ -0,0 +1,153 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPageSerializer;
+
+/**
+ * This class caches the extracted text of PDF files on disk
+ *
+ * <p>
+ * The cache files are named by the SHA-256 hash of the PDF file, so a
+ * document is recognized no matter where it is opened from. A cache file is
+ * memory-mapped when it is loaded and is only used if it was written with the
+ * current {@link PDFTextPositionSequenceStripper#FORMAT_VERSION}.
+ * </p>
+ *
+ */
+public class PDFTextCache {
+    private static final Logger LOGGER = Logger.getLogger(PDFTextCache.class.getName());
+    private static final String DEFAULT_CACHE_DIRECTORY = System.getProperty("user.home") + "/.newnox/cache";
+    private static final String CACHE_FILE_EXTENSION = ".pages";
+    private static final int MAGIC_NUMBER = 0x4E4F5850;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private final Path cacheDirectory;
+
+    public PDFTextCache() {
+        this(new File(DEFAULT_CACHE_DIRECTORY));
+    }
+
+    public PDFTextCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory.toPath();
+    }
+
+    /**
+     * Computes the key of a PDF file
+     *
+     * @param pdfFile
+     *            the PDF file
+     * @returns the hex encoded SHA-256 hash of the file
+     * @throws IOException
+     *             if the file can not be read
+     */
+    public static String hash(File pdfFile) throws IOException {
+        MessageDigest digest = PDFFingerprintUtil.createDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(pdfFile.toPath()), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // the digest is updated while reading
+            }
+        }
+        return PDFFingerprintUtil.toHexString(digest.digest());
+    }
+
+    /**
+     * @param key
+     *            the key of a PDF file
+     * @returns whether there is a valid cache file for the key
+     */
+    public boolean contains(String key) {
+        Path cacheFile = getCacheFile(key);
+        if (!Files.isRegularFile(cacheFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            return channel.size() >= HEADER_SIZE && hasValidHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    HEADER_SIZE));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cache file could not be read", e);
+            return false;
+        }
+    }
+
+    /**
+     * Loads the pages of a PDF file from the cache
+     *
+     * @param key
+     *            the key of the PDF file
+     * @returns the cached pages or null if there are no valid cached pages
+     */
+    public List<PDFPage> load(String key) {
+        Path cacheFile = getCacheFile(key);
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!hasValidHeader(buffer)) {
+                return null;
+            }
+            return PDFPageSerializer.read(buffer);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | IllegalStateException
+                | IndexOutOfBoundsException e) {
+            LOGGER.log(Level.WARNING, "Cache file could not be read", e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the pages of a PDF file in the cache. The cache file is written
+     * to a temporary file first, so a cache file is never incomplete.
+     *
+     * @param key
+     *            the key of the PDF file
+     * @param pages
+     *            the extracted pages
+     */
+    public void store(String key, List<PDFPage> pages) {
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path tempFile = Files.createTempFile(cacheDirectory, key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC_NUMBER);
+                out.writeInt(PDFTextPositionSequenceStripper.FORMAT_VERSION);
+                PDFPageSerializer.write(pages, out);
+            } catch (IOException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            Files.move(tempFile, getCacheFile(key), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cache file could not be written", e);
+        }
+    }
+
+    private boolean hasValidHeader(MappedByteBuffer buffer) {
+        return buffer.getInt() == MAGIC_NUMBER && buffer.getInt() == PDFTextPositionSequenceStripper.FORMAT_VERSION;
+    }
+
+    private Path getCacheFile(String key) {
+        return cacheDirectory.resolve(key + CACHE_FILE_EXTENSION);
+    }
+
+}
@@ -1,13 +1,22 @@
 package com.noxag.newnox.textanalyzer.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDPageLabels;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
 
+import com.noxag.newnox.textanalyzer.data.pdf.FontTable;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFArticle;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFObject;
@@ -22,6 +31,17 @@ import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
  *
  */
 public class PDFTextExtractionUtil {
+    private static final int MIN_PAGES_PER_THREAD = 8;
+    private static final int MIN_CONTENT_FONT_SIZE = FontTable.toSizeBucket(10);
+    private static final int MAX_CONTENT_FONT_SIZE = FontTable.toSizeBucket(14);
+
+    /**
+     * Loads a new {@link PDDocument} instance of the same PDF
+     */
+    @FunctionalInterface
+    private interface PDDocumentLoader {
+        PDDocument load() throws IOException;
+    }
 
     /**
      * Extracts the text of a {@link PDDocument}
@@ -52,6 +72,37 @@ public class PDFTextExtractionUtil {
         return extractText(document, pageIndex, pageIndex).get(0);
     }
 
+    /**
+     * Extracts the text of a {@link PDDocument} page by page
+     * 
+     * <p>
+     * Every page is handed to the consumer as soon as it has been extracted.
+     * The pages are not retained, so a single forward pass over the document
+     * only needs the memory of one page.
+     * </p>
+     * 
+     * @param document
+     *            the document to extract the text from
+     * @param pageConsumer
+     *            the consumer to receive each extracted page in page order
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public static void extractText(PDDocument document, Consumer<PDFPage> pageConsumer) throws IOException {
+        extractText(document, 1, document.getNumberOfPages(), pageConsumer);
+    }
+
+    /**
+     * Extracts the text of a {@link PDDocument} page by page from one page to
+     * another
+     * 
+     * @see #extractText(PDDocument, Consumer)
+     */
+    public static void extractText(PDDocument document, int pageStartIndex, int pageEndIndex,
+            Consumer<PDFPage> pageConsumer) throws IOException {
+        runTextStripper(new PDFTextPositionSequenceStripper(pageConsumer), document, pageStartIndex, pageEndIndex);
+    }
+
     /**
      * Extracts the text of a {@link PDDocument} from one page to another
      * 
@@ -67,9 +118,22 @@ public class PDFTextExtractionUtil {
      */
     public static List<PDFPage> extractText(PDDocument document, int pageStartIndex, int pageEndIndex)
             throws IOException {
+        return extractText(document, pageStartIndex, pageEndIndex, new FontTable());
+    }
+
+    /**
+     * Extracts the text of a {@link PDDocument} from one page to another into
+     * the font table of other pages of the same document
+     * 
+     * @param fontTable
+     *            the font table the fonts of the pages are interned into
+     * @see #extractText(PDDocument, int, int)
+     */
+    public static List<PDFPage> extractText(PDDocument document, int pageStartIndex, int pageEndIndex,
+            FontTable fontTable) throws IOException {
         final List<PDFPage> pages = new ArrayList<>();
 
-        PDFTextPositionSequenceStripper stripper = new PDFTextPositionSequenceStripper() {
+        PDFTextPositionSequenceStripper stripper = new PDFTextPositionSequenceStripper(null, fontTable) {
             @Override
             public String getText(PDDocument doc) throws IOException {
                 String result = super.getText(document);
@@ -82,6 +146,144 @@ public class PDFTextExtractionUtil {
         return pages;
     }
 
+    /**
+     * Extracts the text of a PDF file with one thread per available processor
+     * 
+     * @param file
+     *            the PDF file to extract the text from
+     * @returns a representation of the documents' text
+     * @throws IOException
+     *             if the file can not be read
+     * @see #extractTextParallel(File, int)
+     */
+    public static List<PDFPage> extractTextParallel(File file) throws IOException {
+        return extractTextParallel(file, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Extracts the text of a PDF file with several threads
+     * 
+     * <p>
+     * A {@link PDDocument} can not be shared across threads. So the page range
+     * is split into chunks and every worker loads its own instance of the
+     * document to extract its chunk from. All workers share one
+     * {@link FontTable}.
+     * </p>
+     * 
+     * @param file
+     *            the PDF file to extract the text from
+     * @param threadCount
+     *            the maximum number of threads to be used
+     * @returns a representation of the documents' text
+     * @throws IOException
+     *             if the file can not be read
+     */
+    public static List<PDFPage> extractTextParallel(File file, int threadCount) throws IOException {
+        return extractTextParallel(() -> PDDocument.load(file), threadCount);
+    }
+
+    /**
+     * @see #extractTextParallel(File)
+     */
+    public static List<PDFPage> extractTextParallel(byte[] pdfBytes) throws IOException {
+        return extractTextParallel(pdfBytes, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @see #extractTextParallel(File, int)
+     */
+    public static List<PDFPage> extractTextParallel(byte[] pdfBytes, int threadCount) throws IOException {
+        return extractTextParallel(() -> PDDocument.load(pdfBytes), threadCount);
+    }
+
+    private static List<PDFPage> extractTextParallel(PDDocumentLoader loader, int threadCount) throws IOException {
+        int pageCount;
+        try (PDDocument document = loader.load()) {
+            pageCount = document.getNumberOfPages();
+            if (threadCount <= 1 || pageCount < 2 * MIN_PAGES_PER_THREAD) {
+                return extractText(document);
+            }
+        }
+        int chunkCount = Math.min(threadCount, pageCount / MIN_PAGES_PER_THREAD);
+        int chunkSize = (pageCount + chunkCount - 1) / chunkCount;
+
+        FontTable fontTable = new FontTable();
+        ExecutorService executor = Executors.newFixedThreadPool(chunkCount);
+        try {
+            List<Future<List<PDFPage>>> chunks = new ArrayList<>();
+            for (int start = 1; start <= pageCount; start += chunkSize) {
+                int pageStartIndex = start;
+                int pageEndIndex = Math.min(start + chunkSize - 1, pageCount);
+                chunks.add(executor.submit(() -> {
+                    try (PDDocument document = loader.load()) {
+                        return extractText(document, pageStartIndex, pageEndIndex, fontTable);
+                    }
+                }));
+            }
+
+            // the stripper numbers the pages from its start page on, so the
+            // chunks only have to be joined in order
+            List<PDFPage> pages = new ArrayList<>(pageCount);
+            for (Future<List<PDFPage>> chunk : chunks) {
+                pages.addAll(chunk.get());
+            }
+            return pages;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Text extraction has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Text extraction failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Extracts only the text at the bottom of every page, where the page
+     * numbers are printed. The characters above the band are dropped before
+     * they are sorted and grouped to words, which is much faster than
+     * extracting the whole page.
+     * 
+     * @param document
+     *            the document to extract the text from
+     * @param bandHeight
+     *            the height of the band as a fraction of the page height
+     * @returns one page for every page of the document, it may contain no
+     *          words at all
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public static List<PDFPage> extractBottomBands(PDDocument document, float bandHeight) throws IOException {
+        final List<PDFPage> pages = new ArrayList<>();
+        PDFTextPositionSequenceStripper stripper = new PDFTextPositionSequenceStripper(pages::add) {
+            @Override
+            protected void processTextPosition(TextPosition text) {
+                if (text.getYDirAdj() >= text.getPageHeight() * (1 - bandHeight)) {
+                    super.processTextPosition(text);
+                }
+            }
+        };
+        runTextStripper(stripper, document, 1, document.getNumberOfPages());
+        return pages;
+    }
+
+    /**
+     * Reads the page labels of the document catalog, these are the page
+     * numbers a PDF viewer shows instead of the page index
+     * 
+     * @returns the label of every page or null if the document defines no
+     *          page labels
+     * @throws IOException
+     *             if PDDcument can not be read
+     */
+    public static String[] getPageLabels(PDDocument document) throws IOException {
+        PDPageLabels pageLabels = document.getDocumentCatalog().getPageLabels();
+        return pageLabels == null ? null : pageLabels.getLabelsByPageIndices();
+    }
+
     public static String runTextStripper(PDDocument document) throws IOException {
         return runTextStripper(new PDFTextStripper(), document, 1, document.getNumberOfPages());
     }
@@ -132,13 +334,26 @@ public class PDFTextExtractionUtil {
      */
     public static List<PDFPage> extractContentPages(List<PDFPage> pages) {
         List<PDFPage> contentPages = reducetoContentPages(pages);
-        if (contentPages.size() == 0 || ((float) contentPages.size() / (float) pages.size()) < 0.5) {
+        if (!isReducibleToContent(contentPages.size(), pages.size())) {
             return pages;
         }
         return contentPages;
 
     }
 
+    /**
+     * Checks if a document can be reduced to its content pages. This is the
+     * case if at least half of its pages are content pages.
+     * 
+     * @param contentPageCount
+     *            the number of content pages of the document
+     * @param pageCount
+     *            the number of all pages of the document
+     */
+    public static boolean isReducibleToContent(int contentPageCount, int pageCount) {
+        return contentPageCount != 0 && ((float) contentPageCount / (float) pageCount) >= 0.5;
+    }
+
     private static List<PDFPage> reducetoContentPages(List<PDFPage> pages) {
         return pages.stream().filter(PDFPage::isContentPage).collect(Collectors.toList());
     }
@@ -150,11 +365,11 @@ public class PDFTextExtractionUtil {
             return match;
         }).findFirst().get();
 
-        float H1FontSize = firstToCPage.getFirstWord().getFirstTextPosition().getFontSize();
+        int H1FontSize = firstToCPage.getFirstWord().getFontSizeBucket();
         int firstToCPageIndex = firstToCPage.getFirstWord().getPageIndex();
         PDFPage firstPageAfterToC = pages.stream().filter(page -> {
             TextPositionSequence firstWord = page.getFirstWord();
-            boolean sameFontSize = firstWord.getFirstTextPosition().getFontSize() == H1FontSize;
+            boolean sameFontSize = firstWord.getFontSizeBucket() == H1FontSize;
             boolean pageAfterTableOfConent = firstWord.getPageIndex() > firstToCPageIndex;
             return sameFontSize && pageAfterTableOfConent;
         }).findFirst().get();
@@ -173,37 +388,53 @@ public class PDFTextExtractionUtil {
      */
     public static List<PDFPage> reduceToContent(List<PDFPage> pages) {
         List<PDFPage> contentPages = reducetoContentPages(pages);
-        if (contentPages.size() == 0 || ((float) contentPages.size() / (float) pages.size()) < 0.5) {
+        if (!isReducibleToContent(contentPages.size(), pages.size())) {
             return pages;
         }
-        double minContentFontSize = 10;
-        double maxContentFontSize = 14;
-        List<PDFPage> reducedContent = new ArrayList<>();
+        return contentPages.stream().map(PDFTextExtractionUtil::reduceToContent).collect(Collectors.toList());
+    }
+
+    /**
+     * Removes every line of a single content page that is not real content
+     * like headlines and page numbers, etc.
+     * 
+     * @param page
+     *            the content page to be reduced
+     * @returns a new page only containing the content lines
+     * @see #reduceToContent(List)
+     */
+    public static PDFPage reduceToContent(PDFPage page) {
         PDFPage reducedContentPage = new PDFPage();
         PDFArticle reducedContentArticle = new PDFArticle();
         PDFParagraph reducedContentParagraph = new PDFParagraph();
-        for (PDFPage page : contentPages) {
-            for (PDFArticle article : page.getArticles()) {
-                for (PDFParagraph paragraph : article.getParagraphs()) {
-                    paragraph.getLines().stream().filter(line -> {
-                        float lineFontSize = line.getFirstWord().getFirstTextPosition().getFontSize();
-                        return minContentFontSize <= lineFontSize && lineFontSize <= maxContentFontSize;
-                    }).forEach(reducedContentParagraph::add);
-                    reducedContentArticle.add(reducedContentParagraph);
-                    reducedContentParagraph = new PDFParagraph();
-                }
-                reducedContentPage.add(reducedContentArticle);
-                reducedContentArticle = new PDFArticle();
+        for (PDFArticle article : page.getArticles()) {
+            for (PDFParagraph paragraph : article.getParagraphs()) {
+                paragraph.getLines().stream().filter(line -> {
+                    int lineFontSize = line.getFirstWord().getFontSizeBucket();
+                    return MIN_CONTENT_FONT_SIZE <= lineFontSize && lineFontSize <= MAX_CONTENT_FONT_SIZE;
+                }).forEach(reducedContentParagraph::add);
+                reducedContentArticle.add(reducedContentParagraph);
+                reducedContentParagraph = new PDFParagraph();
             }
-            // remove last line because this is the page num
+            reducedContentPage.add(reducedContentArticle);
+            reducedContentArticle = new PDFArticle();
+        }
+        // remove last line because this is the page num
+        if (!reducedContentPage.getArticles().isEmpty()) {
             reducedContentPage.getLastArticle().getLastParagraph().removeLastLine();
-
-            reducedContent.add(reducedContentPage);
-            reducedContentPage = new PDFPage();
         }
+        return reducedContentPage;
+    }
 
-        return reducedContent;
-
+    /**
+     * Checks if a line is a headline, this is the case if its font is larger
+     * than the font of the content
+     * 
+     * @param line
+     *            the line to be checked
+     */
+    public static boolean isHeadline(PDFLine line) {
+        return !line.getWords().isEmpty() && line.getFirstWord().getFontSizeBucket() > MAX_CONTENT_FONT_SIZE;
     }
 
     private PDFTextExtractionUtil() {
@@ -3,6 +3,7 @@ package com.noxag.newnox.textanalyzer.util;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -10,25 +11,66 @@ import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.text.TextPosition;
 
+import com.noxag.newnox.textanalyzer.data.pdf.FontTable;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFArticle;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFLine;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
 import com.noxag.newnox.textanalyzer.data.pdf.PDFParagraph;
 import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
-
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionStore;
+
+/**
+ * This stripper extracts the text of a document as {@link PDFPage}s
+ * 
+ * <p>
+ * The pages are either collected or, if a page consumer is given, handed to
+ * the consumer as soon as they are finished and then dropped.
+ * </p>
+ *
+ */
 public class PDFTextPositionSequenceStripper extends PDFTextStripper {
 
+    /**
+     * The version of the extracted text model. It has to be increased
+     * whenever the stripper or the serialized form of the pages changes, so
+     * cached pages of older versions are extracted again.
+     * 
+     * @see PDFTextCache
+     */
+    public static final int FORMAT_VERSION = 4;
+
     private int currentPage;
     private List<PDFPage> document;
+    private Consumer<PDFPage> pageConsumer;
     private PDFPage pdfPage;
     private PDFArticle pdfArticle;
     private PDFParagraph pdfParagraph;
     private PDFLine pdfLine;
     private List<TextPositionSequence> words;
+    private TextPositionStore store;
+    private final FontTable fontTable;
     private Pattern pattern = Pattern.compile("\\d+");
 
     public PDFTextPositionSequenceStripper() throws IOException {
+        this(null);
+    }
+
+    public PDFTextPositionSequenceStripper(Consumer<PDFPage> pageConsumer) throws IOException {
+        this(pageConsumer, new FontTable());
+    }
+
+    /**
+     * @param pageConsumer
+     *            receives every page once it is complete, may be null
+     * @param fontTable
+     *            the font table of the document, the fonts of all pages are
+     *            interned into it
+     */
+    public PDFTextPositionSequenceStripper(Consumer<PDFPage> pageConsumer, FontTable fontTable)
+            throws IOException {
         super();
+        this.pageConsumer = pageConsumer;
+        this.fontTable = fontTable;
         resetCurrentPage();
         document = new ArrayList<>();
         pdfPage = new PDFPage();
@@ -36,43 +78,39 @@ public class PDFTextPositionSequenceStripper extends PDFTextStripper {
         pdfParagraph = new PDFParagraph();
         pdfLine = new PDFLine();
         words = new ArrayList<>();
+        store = new TextPositionStore(fontTable);
 
     }
 
+    /**
+     * Splits the characters into words in a single forward scan. Every
+     * punctuation mark becomes a word on its own, the characters between them
+     * form the other words.
+     * 
+     * @see CharacterClassTable
+     */
     @Override
     protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
-        if (containsPunctutationMark(textPositions)) {
-            divideWriteStringCall(text, textPositions);
-            return;
-        }
-        if (!textPositions.isEmpty()) {
-            words.add(new TextPositionSequence(textPositions, currentPage));
+        int wordStart = store.size();
+        for (TextPosition textPosition : textPositions) {
+            int characterClass = CharacterClassTable.classify(textPosition.getUnicode());
+            // a single character is always a word of its own
+            if (CharacterClassTable.isPunctuationMark(characterClass) && textPositions.size() > 1) {
+                addWord(wordStart, store.size());
+                int punctuationMark = store.add(textPosition, characterClass);
+                addWord(punctuationMark, store.size());
+                wordStart = store.size();
+            } else {
+                store.add(textPosition, characterClass);
+            }
         }
+        addWord(wordStart, store.size());
     }
 
-    private void divideWriteStringCall(String text, List<TextPosition> textPositions) throws IOException {
-        int punctuationMarkIndex = PDFTextAnalyzerUtil.getPunctuationMarkIndex(textPositions);
-
-        List<TextPosition> firstPositions = textPositions.subList(0, punctuationMarkIndex);
-        List<TextPosition> punctuationPosition = textPositions.subList(punctuationMarkIndex, punctuationMarkIndex + 1);
-
-        String firstText = text.substring(0, punctuationMarkIndex);
-        String punctuationText = text.substring(punctuationMarkIndex, punctuationMarkIndex + 1);
-
-        writeString(firstText, firstPositions);
-        writeString(punctuationText, punctuationPosition);
-        if (punctuationMarkIndex + 1 < textPositions.size()) {
-            List<TextPosition> lastPositions = textPositions.subList(punctuationMarkIndex + 1, textPositions.size());
-            String lastText = text.substring(punctuationMarkIndex + 1, textPositions.size());
-            writeString(lastText, lastPositions);
+    private void addWord(int start, int end) {
+        if (start < end) {
+            words.add(new TextPositionSequence(store, start, end - 1, currentPage));
         }
-
-    }
-
-    private boolean containsPunctutationMark(List<TextPosition> textPositions) {
-        boolean erstens = textPositions.size() > 1;
-        boolean zweitesns = PDFTextAnalyzerUtil.containsPunctuationMark(textPositions);
-        return erstens && zweitesns;
     }
 
     @Override
@@ -88,6 +126,7 @@ public class PDFTextPositionSequenceStripper extends PDFTextStripper {
         pdfParagraph = new PDFParagraph();
         pdfLine = new PDFLine();
         words = new ArrayList<>();
+        store = new TextPositionStore(fontTable);
     }
 
     @Override
@@ -128,6 +167,7 @@ public class PDFTextPositionSequenceStripper extends PDFTextStripper {
         pdfParagraph.add(pdfLine);
         pdfArticle.add(pdfParagraph);
         pdfPage.add(pdfArticle);
+        store.trimToSize();
 
         String lastLine = pdfPage.getLastLine().getWords().stream().map(TextPositionSequence::toString).reduce("",
                 String::concat);
@@ -135,7 +175,11 @@ public class PDFTextPositionSequenceStripper extends PDFTextStripper {
         if (lastLine.matches("[0-9]+")) {
             pdfPage.setPageNum(Integer.parseInt(lastLine));
         }
-        document.add(pdfPage);
+        if (pageConsumer == null) {
+            document.add(pdfPage);
+        } else {
+            pageConsumer.accept(pdfPage);
+        }
         pdfPage = new PDFPage();
 
     }
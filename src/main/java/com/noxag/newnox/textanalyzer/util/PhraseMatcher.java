@@ -0,0 +1,247 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textanalyzer.data.pdf.TokenDictionary;
+
+/**
+ * This class finds all occurrences of a list of phrases in a list of words
+ *
+ * <p>
+ * A phrase is a sequence of one or more words. The phrases are compiled once
+ * into an Aho-Corasick automaton over the ids of their normalized words, so
+ * all phrases are found in a single pass over the words, no matter how many
+ * phrases there are. Words are compared ignoring case, like in the
+ * {@link TokenDictionary}.
+ * </p>
+ *
+ * <p>
+ * A compiled matcher is immutable and can be used by several threads.
+ * </p>
+ *
+ */
+public class PhraseMatcher {
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+    private static final int NO_PHRASE = -1;
+
+    private final TokenDictionary dictionary;
+    private final int phraseCount;
+    private final int[] phraseLength;
+    private final int[] nextPhrase;
+
+    private int stateCount;
+    private int[] firstPhrase;
+    private int[] failure;
+    private int[] outputLink;
+    private long[] transitionKeys;
+    private int[] transitionTargets;
+
+    /**
+     * This class represents a single occurrence of a phrase
+     */
+    public static class Match {
+        private final int phrase;
+        private final int start;
+        private final int end;
+        private final List<TextPositionSequence> words;
+
+        private Match(int phrase, int start, int end, List<TextPositionSequence> words) {
+            this.phrase = phrase;
+            this.start = start;
+            this.end = end;
+            this.words = words;
+        }
+
+        /**
+         * @returns the index of the matched phrase in the list of phrases
+         */
+        public int getPhrase() {
+            return phrase;
+        }
+
+        /**
+         * @returns the index of the first matched word
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @returns the index after the last matched word
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * @returns the matched words
+         */
+        public List<TextPositionSequence> getWords() {
+            return new ArrayList<>(words.subList(start, end));
+        }
+    }
+
+    /**
+     * Compiles the phrases into a matcher
+     *
+     * @param phrases
+     *            the phrases, each phrase is given as the list of its words.
+     *            Empty phrases are never matched.
+     */
+    public PhraseMatcher(List<? extends List<String>> phrases) {
+        dictionary = new TokenDictionary();
+        phraseCount = phrases.size();
+        phraseLength = new int[phraseCount];
+        nextPhrase = new int[phraseCount];
+        Arrays.fill(nextPhrase, NO_PHRASE);
+
+        int capacity = 1 + phrases.stream().mapToInt(List::size).sum();
+        firstPhrase = new int[capacity];
+        Arrays.fill(firstPhrase, NO_PHRASE);
+        transitionKeys = new long[Integer.highestOneBit(capacity * 2 - 1) * 2];
+        Arrays.fill(transitionKeys, -1L);
+        transitionTargets = new int[transitionKeys.length];
+        int[] parentOf = new int[capacity];
+        int[] tokenOf = new int[capacity];
+        int[] depthOf = new int[capacity];
+        stateCount = 1;
+
+        // phrases are added in reverse order, so each list of phrases that
+        // end in the same state is ordered by phrase index
+        for (int phrase = phraseCount - 1; phrase >= 0; phrase--) {
+            List<String> words = phrases.get(phrase);
+            phraseLength[phrase] = words.size();
+            if (words.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (String word : words) {
+                int token = dictionary.getId(word);
+                int next = getTransition(state, token);
+                if (next == NO_STATE) {
+                    next = stateCount++;
+                    putTransition(state, token, next);
+                    parentOf[next] = state;
+                    tokenOf[next] = token;
+                    depthOf[next] = depthOf[state] + 1;
+                }
+                state = next;
+            }
+            nextPhrase[phrase] = firstPhrase[state];
+            firstPhrase[state] = phrase;
+        }
+        buildFailureLinks(parentOf, tokenOf, depthOf);
+    }
+
+    /**
+     * Finds all occurrences of all phrases, occurrences may overlap
+     *
+     * @param words
+     *            the words to search through
+     * @returns the matches ordered by their first word and then by the index
+     *          of their phrase
+     */
+    public List<Match> findMatches(List<TextPositionSequence> words) {
+        List<Match> matches = new ArrayList<>();
+        int state = ROOT;
+        for (int i = 0; i < words.size(); i++) {
+            int token = dictionary.findId(words.get(i));
+            state = token == TokenDictionary.UNKNOWN_TOKEN ? ROOT : step(state, token);
+            int output = firstPhrase[state] != NO_PHRASE ? state : outputLink[state];
+            while (output != NO_STATE) {
+                for (int phrase = firstPhrase[output]; phrase != NO_PHRASE; phrase = nextPhrase[phrase]) {
+                    matches.add(new Match(phrase, i + 1 - phraseLength[phrase], i + 1, words));
+                }
+                output = outputLink[output];
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::getStart).thenComparingInt(Match::getPhrase));
+        return matches;
+    }
+
+    /**
+     * @returns the number of phrases of this matcher
+     */
+    public int size() {
+        return phraseCount;
+    }
+
+    private int step(int state, int token) {
+        int next = getTransition(state, token);
+        while (next == NO_STATE && state != ROOT) {
+            state = failure[state];
+            next = getTransition(state, token);
+        }
+        return next == NO_STATE ? ROOT : next;
+    }
+
+    private void buildFailureLinks(int[] parentOf, int[] tokenOf, int[] depthOf) {
+        failure = new int[stateCount];
+        outputLink = new int[stateCount];
+        outputLink[ROOT] = NO_STATE;
+
+        // the states are visited breadth first, so the failure link of a
+        // state always points to a state that is already complete
+        int maxDepth = 0;
+        for (int state = 0; state < stateCount; state++) {
+            maxDepth = Math.max(maxDepth, depthOf[state]);
+        }
+        int[] depthStart = new int[maxDepth + 2];
+        for (int state = 0; state < stateCount; state++) {
+            depthStart[depthOf[state] + 1]++;
+        }
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            depthStart[depth + 1] += depthStart[depth];
+        }
+        int[] order = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            order[depthStart[depthOf[state]]++] = state;
+        }
+
+        for (int state : order) {
+            if (state == ROOT) {
+                continue;
+            }
+            int fallback = parentOf[state] == ROOT ? ROOT : step(failure[parentOf[state]], tokenOf[state]);
+            failure[state] = fallback;
+            outputLink[state] = firstPhrase[fallback] != NO_PHRASE ? fallback : outputLink[fallback];
+        }
+    }
+
+    private int getTransition(int state, int token) {
+        long key = toKey(state, token);
+        int mask = transitionKeys.length - 1;
+        for (int slot = hash(key) & mask; transitionKeys[slot] != -1L; slot = (slot + 1) & mask) {
+            if (transitionKeys[slot] == key) {
+                return transitionTargets[slot];
+            }
+        }
+        return NO_STATE;
+    }
+
+    private void putTransition(int state, int token, int target) {
+        long key = toKey(state, token);
+        int mask = transitionKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (transitionKeys[slot] != -1L) {
+            slot = (slot + 1) & mask;
+        }
+        transitionKeys[slot] = key;
+        transitionTargets[slot] = target;
+    }
+
+    private static long toKey(int state, int token) {
+        return ((long) state << 32) | (token & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
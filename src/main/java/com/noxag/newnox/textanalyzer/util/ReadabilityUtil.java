@@ -0,0 +1,56 @@
+package com.noxag.newnox.textanalyzer.util;
+
+/**
+ * This utils class contains methods to measure the readability of German
+ * texts
+ *
+ */
+public class ReadabilityUtil {
+    private static final String VOWELS = "aeiouy\u00e4\u00f6\u00fc";
+
+    /**
+     * Estimates the syllables of a German word by counting its groups of
+     * vowels. Diphthongs like 'ei' or 'au' are one group.
+     *
+     * @param word
+     *            the word
+     * @returns the number of syllables, at least one
+     */
+    public static int countSyllables(CharSequence word) {
+        int syllables = 0;
+        boolean previousIsVowel = false;
+        for (int i = 0; i < word.length(); i++) {
+            boolean isVowel = VOWELS.indexOf(Character.toLowerCase(word.charAt(i))) >= 0;
+            if (isVowel && !previousIsVowel) {
+                syllables++;
+            }
+            previousIsVowel = isVowel;
+        }
+        return Math.max(syllables, 1);
+    }
+
+    /**
+     * Computes the Flesch reading ease for German texts as adapted by Amstad:
+     * 180 - words per sentence - 58.5 * syllables per word. Higher scores are
+     * easier to read, scientific texts usually score between 0 and 30.
+     *
+     * @param sentences
+     *            the number of sentences
+     * @param words
+     *            the number of words
+     * @param syllables
+     *            the number of syllables
+     * @returns the reading ease or NaN if there are no words
+     */
+    public static double fleschAmstad(int sentences, int words, int syllables) {
+        if (sentences == 0 || words == 0) {
+            return Double.NaN;
+        }
+        return 180 - (double) words / sentences - 58.5 * syllables / words;
+    }
+
+    private ReadabilityUtil() {
+        // hide constructor, because this is a completely static class
+    }
+
+}
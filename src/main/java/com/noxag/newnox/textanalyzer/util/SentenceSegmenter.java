@@ -0,0 +1,99 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.noxag.newnox.textanalyzer.data.pdf.PDFTextIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.SentenceIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.opencsv.CSVReader;
+
+/**
+ * This class splits the words of a {@link PDFTextIndex} into sentences
+ *
+ * <p>
+ * A sentence ends with a paragraph or with a period or colon that is
+ * followed by an upper case word. Periods that belong to a known
+ * abbreviation, like the ones of 'z.B.', do not end a sentence.
+ * </p>
+ *
+ */
+public class SentenceSegmenter {
+    public static final String DEFAULT_ABBREVIATION_LIST_PATH = "src/main/resources/analyzer-conf/common-abbreviation-list.csv";
+    private static final Logger LOGGER = Logger.getLogger(SentenceSegmenter.class.getName());
+    private static final List<String> SENTENCE_END_MARKS = Arrays.asList(".", ":");
+
+    private final PhraseMatcher abbreviationMatcher;
+
+    /**
+     * @param abbreviations
+     *            the abbreviations that do not end a sentence, like 'z.b.'
+     */
+    public SentenceSegmenter(List<String> abbreviations) {
+        this.abbreviationMatcher = new PhraseMatcher(
+                abbreviations.stream().map(PDFTextAnalyzerUtil::splitAbbreviation).collect(Collectors.toList()));
+    }
+
+    /**
+     * Creates a segmenter that knows the abbreviations of the given CSV file
+     */
+    public static SentenceSegmenter fromAbbreviationList(String abbreviationListPath) {
+        List<String> abbreviations = new ArrayList<>();
+        try {
+            CSVReader reader = new CSVReader(new FileReader(abbreviationListPath));
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                Arrays.stream(line).map(str -> str.replaceAll(" ", "")).map(String::toLowerCase)
+                        .forEach(abbreviations::add);
+            }
+            reader.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Configuration file could not be read", e);
+        }
+        return new SentenceSegmenter(abbreviations);
+    }
+
+    /**
+     * Splits the words of the index into sentences in a single pass
+     *
+     * @param index
+     *            the words to be segmented
+     * @returns the sentence boundaries
+     */
+    public SentenceIndex segment(PDFTextIndex index) {
+        List<TextPositionSequence> words = index.getWords();
+        boolean[] inAbbreviation = new boolean[words.size()];
+        abbreviationMatcher.findMatches(words)
+                .forEach(match -> Arrays.fill(inAbbreviation, match.getStart(), match.getEnd(), true));
+
+        int[] sentenceStart = new int[16];
+        int sentenceCount = 0;
+        for (int paragraph = 0; paragraph < index.getParagraphs().size(); paragraph++) {
+            int start = index.getFirstWordOfParagraph(paragraph);
+            int end = index.getFirstWordOfParagraph(paragraph + 1);
+            for (int word = start; word < end; word++) {
+                if (word == start || isSentenceEnd(words.get(word - 1), words.get(word))
+                        && !inAbbreviation[word - 1]) {
+                    if (sentenceCount + 1 == sentenceStart.length) {
+                        sentenceStart = Arrays.copyOf(sentenceStart, sentenceStart.length * 2);
+                    }
+                    sentenceStart[sentenceCount++] = word;
+                }
+            }
+        }
+        sentenceStart[sentenceCount] = words.size();
+        return new SentenceIndex(index, Arrays.copyOf(sentenceStart, sentenceCount + 1));
+    }
+
+    private boolean isSentenceEnd(TextPositionSequence word, TextPositionSequence nextWord) {
+        return word.length() == 1 && SENTENCE_END_MARKS.contains(word.toString())
+                && Character.isUpperCase(nextWord.charAt(0));
+    }
+
+}
@@ -1,6 +1,5 @@
 package com.noxag.newnox.ui;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.List;
 import java.util.function.Consumer;
@@ -8,11 +7,14 @@ import java.util.function.Consumer;
 import com.noxag.newnox.textanalyzer.data.CommentaryFinding;
 import com.noxag.newnox.ui.configurationmodule.ConfigurationPane;
 import com.noxag.newnox.ui.pdfmodule.PDFPane;
+import com.noxag.newnox.ui.pdfmodule.renderer.PDFPageRenderService;
+import com.noxag.newnox.ui.pdfmodule.renderer.TextMarkupLayers;
 import com.noxag.newnox.ui.statisticmodule.StatisticPane;
 
 import javafx.application.Application;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.concurrent.Worker;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
@@ -50,6 +52,7 @@ public class NewNoxWindow extends Application {
     private SplitPane main;
     private Consumer<File> openPDFBtnCallBack;
     private Consumer<List<String>> analyzeBtnCallBack;
+    private Runnable cancelAnalysisBtnCallBack;
     private static Scene scene;
 
     @Override
@@ -101,8 +104,10 @@ public class NewNoxWindow extends Application {
     private void createActionEventsForConfigPane(ConfigurationPane configPane) {
         Button btnOpen = configPane.getOpenButton();
         Button btnRun = configPane.getRunButton();
+        Button btnCancel = configPane.getCancelButton();
         FileChooser fileChooser = configPane.getFileChooser();
         createActionEventForRunButton(configPane, btnRun);
+        createActionEventForCancelButton(btnCancel);
         createActionEventForOpenButton(btnOpen, btnRun, fileChooser);
     }
 
@@ -115,6 +120,15 @@ public class NewNoxWindow extends Application {
         });
     }
 
+    private void createActionEventForCancelButton(Button btnCancel) {
+        btnCancel.setOnAction(new EventHandler<ActionEvent>() {
+            @Override
+            public void handle(final ActionEvent e) {
+                triggerCancelAnalysisEvent();
+            }
+        });
+    }
+
     private void createActionEventForOpenButton(Button btnOpen, Button btnRun, FileChooser fileChooser) {
         btnOpen.setOnAction(new EventHandler<ActionEvent>() {
             @Override
@@ -156,6 +170,10 @@ public class NewNoxWindow extends Application {
         this.analyzeBtnCallBack = analyzeCallBack;
     }
 
+    public void registerCancelAnalysisEvent(Runnable cancelAnalysisCallBack) {
+        this.cancelAnalysisBtnCallBack = cancelAnalysisCallBack;
+    }
+
     public void registerOpenPDFEvent(Consumer<File> openPDFCallBack) {
         this.openPDFBtnCallBack = openPDFCallBack;
     }
@@ -164,6 +182,10 @@ public class NewNoxWindow extends Application {
         this.analyzeBtnCallBack.accept(algorithms);
     }
 
+    public void triggerCancelAnalysisEvent() {
+        this.cancelAnalysisBtnCallBack.run();
+    }
+
     public void triggerOpenPDFEvent(File file) {
         this.openPDFBtnCallBack.accept(file);
         this.pdfPane.setFileDescription(file.getName());
@@ -177,13 +199,17 @@ public class NewNoxWindow extends Application {
         configPane.setStatisticanalyzerUInames(statisticanalyzerUINames);
     }
 
-    public void updatePDFImages(List<BufferedImage> pdfTextOverlay) {
+    public void updatePDFView(PDFPageRenderService pageRenderService) {
         statisticPane.resetPage();
-        pdfPane.setPDFTextOverlay(pdfTextOverlay);
+        pdfPane.setPageRenderService(pageRenderService);
+    }
+
+    public void showAnalysisProgress(Worker<?> analysis) {
+        configPane.showProgress(analysis);
     }
 
-    public void updateTextMarkupImages(List<BufferedImage> textMarkupImages) {
-        pdfPane.setTextMarkupOverlay(textMarkupImages);
+    public void updateTextMarkups(TextMarkupLayers textMarkups) {
+        pdfPane.setTextMarkupLayers(textMarkups);
     }
 
     public void updateStatisticView(List<BarChart<String, Number>> charts, List<CommentaryFinding> comments) {
@@ -3,20 +3,27 @@ package com.noxag.newnox.ui.configurationmodule;
 import java.io.File;
 import java.util.List;
 
+import javafx.concurrent.Worker;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 
 public class ConfigurationPane extends BorderPane {
 
-    private Button btnrun, btnopen;
+    private Button btnrun, btnopen, btncancel;
     private FileChooser fileChooser;
     private ConfigurationTabPane configTabPane;
     private HBox btnbox;
+    private ProgressBar progressBar;
+    private Label progressLabel;
+    private Worker<?> shownAnalysis;
 
     public ConfigurationPane() {
         this.setStyle("-fx-border-width: 0 0 2 0; " + "-fx-border-style: solid solid solid solid;");
@@ -26,12 +33,17 @@ public class ConfigurationPane extends BorderPane {
 
         btnrun = createButtons("Run");
         btnopen = createButtons("Open File...");
+        btncancel = createButtons("Cancel");
         btnrun.setDisable(true);
+        btncancel.setVisible(false);
+
+        progressBar = createProgressBar();
+        progressLabel = createProgressLabel();
 
         fileChooser = createFileChooser();
 
         btnbox = createButtonBox();
-        btnbox.getChildren().addAll(btnopen, btnrun);
+        btnbox.getChildren().addAll(progressLabel, progressBar, btnopen, btnrun, btncancel);
 
         this.setCenter(configTabPane);
         this.setBottom(btnbox);
@@ -47,6 +59,58 @@ public class ConfigurationPane extends BorderPane {
         return btn;
     }
 
+    private ProgressBar createProgressBar() {
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setVisible(false);
+        HBox.setMargin(progressBar, new Insets(4.0, 4.0, 8.0, 4.0));
+        return progressBar;
+    }
+
+    private Label createProgressLabel() {
+        Label progressLabel = new Label();
+        progressLabel.setVisible(false);
+        progressLabel.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(progressLabel, Priority.ALWAYS);
+        HBox.setMargin(progressLabel, new Insets(4.0, 4.0, 8.0, 4.0));
+        return progressLabel;
+    }
+
+    /**
+     * Shows the progress of a running analysis until it has finished
+     * 
+     * <p>
+     * Opening another file or starting another analysis is not possible
+     * meanwhile, instead the analysis can be cancelled.
+     * </p>
+     * 
+     * @param analysis
+     *            the analysis that has just been started
+     */
+    public void showProgress(Worker<?> analysis) {
+        shownAnalysis = analysis;
+        progressBar.progressProperty().bind(analysis.progressProperty());
+        progressLabel.textProperty().bind(analysis.messageProperty());
+        analysis.stateProperty().addListener((observable, oldState, state) -> {
+            if (analysis == shownAnalysis) {
+                setAnalysisRunning(!isFinished(state));
+            }
+        });
+        // the analysis may still wait for the worker thread
+        setAnalysisRunning(!isFinished(analysis.getState()));
+    }
+
+    private boolean isFinished(Worker.State state) {
+        return state == Worker.State.SUCCEEDED || state == Worker.State.CANCELLED || state == Worker.State.FAILED;
+    }
+
+    private void setAnalysisRunning(boolean running) {
+        progressBar.setVisible(running);
+        progressLabel.setVisible(running);
+        btncancel.setVisible(running);
+        btnrun.setDisable(running);
+        btnopen.setDisable(running);
+    }
+
     private HBox createButtonBox() {
         HBox btnBox = new HBox();
         btnBox.setAlignment(Pos.BOTTOM_RIGHT);
@@ -74,6 +138,10 @@ public class ConfigurationPane extends BorderPane {
         return btnrun;
     }
 
+    public Button getCancelButton() {
+        return btncancel;
+    }
+
     public Button getOpenButton() {
         return btnopen;
     }
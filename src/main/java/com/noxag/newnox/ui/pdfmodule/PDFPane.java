@@ -1,63 +1,120 @@
 package com.noxag.newnox.ui.pdfmodule;
 
-import java.awt.Graphics;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
 import com.noxag.newnox.textlogic.PDFTextMarker;
-
-import javafx.embed.swing.SwingFXUtils;
+import com.noxag.newnox.ui.pdfmodule.renderer.PDFPageRenderService;
+import com.noxag.newnox.ui.pdfmodule.renderer.PageImageKey;
+import com.noxag.newnox.ui.pdfmodule.renderer.TextMarkupLayers;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.DoubleBinding;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.WeakChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableSet;
+import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Cursor;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.TilePane;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.FillRule;
+import javafx.scene.shape.HLineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.VLineTo;
 import javafx.scene.text.Text;
 
 /**
  * This class represents the PDFPane for the User Interface
  * 
+ * <p>
+ * The pages are shown in a virtualized list, so only the pages in view are
+ * requested from the {@link PDFPageRenderService}. A page that has not been
+ * rendered yet is shown as a blank page of its final size.
+ * </p>
+ * 
+ * <p>
+ * The text markups are drawn onto a canvas above the blank page and below
+ * the text. Clicking a finding type in the legend hides or shows its markups.
+ * </p>
+ * 
+ * <p>
+ * Pages can be zoomed with the buttons above the pages or with the mouse
+ * wheel while the control key is held down. A zoomed in page is overlaid with
+ * sharper tiles, but only with the tiles in view.
+ * </p>
+ * 
  * @author Lars.Dittert@de.ibm.com, Pascal.Schroeder@de.ibm.com
  *
  */
 
 public class PDFPane extends VBox {
-    private ScrollPane scrollPane;
+    private static final double PAGE_WIDTH_INSET = 30;
+    private static final double HIDDEN_LEGEND_OPACITY = 0.4;
+    private static final double MIN_ZOOM = 0.5;
+    private static final double MAX_ZOOM = 4;
+    private static final double ZOOM_STEP = 1.25;
+    private ListView<Integer> pageListView;
+    private DoubleProperty zoom;
+    private DoubleBinding pageWidth;
     private StackPane pdfLegendStack;
     private BorderPane fileLocationPane;
-    private List<BufferedImage> textMarkupOverlay;
-    private List<BufferedImage> pdfTextOverlay;
+    private ObjectProperty<TextMarkupLayers> textMarkupLayers;
+    private ObservableSet<TextFindingType> hiddenTextFindingTypes;
+    private PDFPageRenderService pageRenderService;
     public List<TextFindingType> textAnalyzer;
 
     public PDFPane() {
-        this(new ArrayList<BufferedImage>());
-    }
-
-    public PDFPane(List<BufferedImage> pdfTextOverlay) {
-        this(pdfTextOverlay, new ArrayList<BufferedImage>());
-    }
-
-    public PDFPane(List<BufferedImage> pdfTextOverlay, List<BufferedImage> textHighlightingOverlay) {
-        this.pdfTextOverlay = pdfTextOverlay;
-        this.textMarkupOverlay = textHighlightingOverlay;
+        this.textMarkupLayers = new SimpleObjectProperty<>(new TextMarkupLayers());
+        this.hiddenTextFindingTypes = FXCollections.observableSet(EnumSet.noneOf(TextFindingType.class));
+        this.zoom = new SimpleDoubleProperty(1);
         textAnalyzer = Arrays.asList(TextFindingType.values());
 
         initPDFPaneComponents();
     }
 
     public void initPDFPaneComponents() {
-        scrollPane = createScrollPane();
+        pageListView = createPageListView();
         fileLocationPane = createFileLocationPane();
         pdfLegendStack = createPDFLegendStack();
 
@@ -65,25 +122,21 @@ public class PDFPane extends VBox {
         this.getChildren().addAll(fileLocationPane, pdfLegendStack);
     }
 
-    private void updateScrollPane() {
-        scrollPane.setContent(createPDFPane());
-    }
-
-    private ScrollPane createScrollPane() {
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setStyle("-fx-background: #CCCCCC; -fx-focus-color: transparent;");
-        scrollPane.setContent(createPDFPane());
-
-        return scrollPane;
-    }
-
-    private VBox createPDFPane() {
-        VBox pdfPane = new VBox();
-        pdfPane.prefHeightProperty().bind(this.heightProperty().multiply(0.95));
-
-        List<StackPane> imageStackPanes = getListsAndCreateStacks();
-        pdfPane.getChildren().addAll(imageStackPanes);
-        return pdfPane;
+    private ListView<Integer> createPageListView() {
+        ListView<Integer> pageListView = new ListView<>();
+        pageListView.setStyle("-fx-background-color: #CCCCCC; -fx-focus-color: transparent;");
+        pageListView.setFocusTraversable(false);
+        pageListView.prefHeightProperty().bind(this.heightProperty().multiply(0.95));
+        pageListView.setCellFactory(listView -> new PDFPageCell());
+        pageListView.addEventFilter(ScrollEvent.SCROLL, event -> {
+            if (event.isControlDown() && event.getDeltaY() != 0) {
+                zoomBy(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP);
+                event.consume();
+            }
+        });
+        // at a zoom of 1 the pages fit the width of the list
+        pageWidth = pageListView.widthProperty().subtract(PAGE_WIDTH_INSET).multiply(zoom);
+        return pageListView;
     }
 
     private StackPane createPDFLegendStack() {
@@ -92,7 +145,7 @@ public class PDFPane extends VBox {
         ScrollPane legendScrollPane = createLegendScrollPane();
         HBox invisiblePane = createInvisiblePane(legendScrollPane);
 
-        pdfLegendStack.getChildren().addAll(scrollPane, invisiblePane, legendScrollPane);
+        pdfLegendStack.getChildren().addAll(pageListView, invisiblePane, legendScrollPane);
         return pdfLegendStack;
     }
 
@@ -104,7 +157,7 @@ public class PDFPane extends VBox {
         legendScrollPane.setContent(textAnalyzerLegend);
         StackPane.setAlignment(legendScrollPane, Pos.BOTTOM_LEFT);
         legendScrollPane.setMaxHeight(100);
-        legendScrollPane.maxWidthProperty().bind(scrollPane.widthProperty().subtract(20));
+        legendScrollPane.maxWidthProperty().bind(pageListView.widthProperty().subtract(20));
         legendScrollPane.setVisible(false);
         return legendScrollPane;
     }
@@ -133,6 +186,8 @@ public class PDFPane extends VBox {
                     + textColor + "; -fx-underline: " + underline + "; -fx-strikethrough: " + strikeout
                     + "; -fx-font: 14pt \"Segoe UI\"; -fx-font-weight: 600");
             textAnalyzerLegendPane.setMargin(analyzerText, new Insets(5, 5, 5, 5));
+            analyzerText.setCursor(Cursor.HAND);
+            analyzerText.setOnMouseClicked(event -> toggleTextFindingType(analyzer, analyzerText));
 
             textAnalyzerLegendPane.getChildren().add(analyzerText);
         });
@@ -141,6 +196,15 @@ public class PDFPane extends VBox {
 
     }
 
+    private void toggleTextFindingType(TextFindingType type, Text legendText) {
+        if (hiddenTextFindingTypes.remove(type)) {
+            legendText.setOpacity(1);
+        } else {
+            hiddenTextFindingTypes.add(type);
+            legendText.setOpacity(HIDDEN_LEGEND_OPACITY);
+        }
+    }
+
     private String getHexColorOfAnalyzer(TextFindingType analyzer) {
         String hexColor;
         try {
@@ -165,63 +229,302 @@ public class PDFPane extends VBox {
 
     private void createOnHoverEvents(HBox invisiblePane, ScrollPane legendScrollPane) {
         invisiblePane.hoverProperty().addListener((observable, oldValue, show) -> {
-            if (textMarkupOverlay.size() != 0) {
+            if (!textMarkupLayers.get().isEmpty()) {
                 legendScrollPane.setVisible(true);
             }
         });
 
-        scrollPane.hoverProperty().addListener((observable, oldValue, show) -> {
+        pageListView.hoverProperty().addListener((observable, oldValue, show) -> {
             legendScrollPane.setVisible(false);
         });
     }
 
-    public List<StackPane> getListsAndCreateStacks() {
-        List<StackPane> stackList = new ArrayList<StackPane>();
+    /**
+     * Shows a page as a white background, the text markups, the text of the
+     * page and the tiles of the page stacked on each other
+     *
+     * <p>
+     * Cells are reused for other pages while scrolling. A cell withdraws the
+     * requests for its previous page, so pages that have been scrolled past
+     * quickly are not rendered at all. Only the cells have a canvas for the
+     * text markups, the pages have none.
+     * </p>
+     *
+     * <p>
+     * The canvas and the tiles only cover the part of the page in view, so a
+     * zoomed in page does not need more memory than the viewport. The image
+     * of the whole page is shown below the tiles until they are rendered.
+     * </p>
+     */
+    private class PDFPageCell extends ListCell<Integer> {
+        private final Pane pageBackground;
+        private final Canvas textMarkupCanvas;
+        private final ImageView pdfTextImageView;
+        private final Pane tilePane;
+        private final StackPane imageStackPane;
+        private final Consumer<Image> showPDFText;
+        private final Map<PageImageKey, ImageView> tileViews;
+        private final Map<PageImageKey, Consumer<Image>> tileRequests;
+        private final InvalidationListener hiddenTypesListener;
+        private final ChangeListener<Object> redrawListener;
+        private final ChangeListener<Object> viewportListener;
+        private PDFPageRenderService requestedService;
+        private int requestedPageIndex;
+        private double tileScale;
+
+        PDFPageCell() {
+            pageBackground = createPageLayer();
+            pageBackground.setStyle("-fx-background-color: white;");
+            textMarkupCanvas = new Canvas();
+            pageBackground.getChildren().add(textMarkupCanvas);
+            pdfTextImageView = createImageView();
+            tilePane = createPageLayer();
+            imageStackPane = stackImageViews(pageBackground, pdfTextImageView, tilePane);
+            showPDFText = pdfTextImageView::setImage;
+            tileViews = new HashMap<>();
+            tileRequests = new HashMap<>();
+            this.setStyle("-fx-background-color: transparent; -fx-padding: 0;");
+
+            // the pane outlives its cells, so it must not keep them alive
+            hiddenTypesListener = observable -> drawTextMarkups();
+            redrawListener = (observable, oldValue, newValue) -> drawTextMarkups();
+            viewportListener = (observable, oldValue, newValue) -> updateViewport();
+            hiddenTextFindingTypes.addListener(new WeakInvalidationListener(hiddenTypesListener));
+            textMarkupLayers.addListener(new WeakChangeListener<>(redrawListener));
+            pageWidth.addListener(new WeakChangeListener<>(viewportListener));
+            // scrolling moves the cell within the list
+            pageBackground.localToSceneTransformProperty().addListener(viewportListener);
+        }
 
-        for (int i = 0; i < pdfTextOverlay.size(); i++) {
-            if (textMarkupOverlay.size() <= i) {
-                stackList.add(createStackPane(null, pdfTextOverlay.get(i)));
-            } else {
-                stackList.add(createStackPane(textMarkupOverlay.get(i), pdfTextOverlay.get(i)));
+        @Override
+        protected void updateItem(Integer pageIndex, boolean empty) {
+            super.updateItem(pageIndex, empty);
+            withdrawRequests();
+            if (empty || pageIndex == null || pageRenderService == null) {
+                setGraphic(null);
+                return;
             }
+            Dimension2D pageSize = pageRenderService.getPageSize(pageIndex);
+            bindPageSize(pageBackground, pageSize);
+            bindPageSize(tilePane, pageSize);
+
+            requestedService = pageRenderService;
+            requestedPageIndex = pageIndex;
+            pdfTextImageView.setImage(pageRenderService.requestPageImage(pageIndex, showPDFText));
+            updateViewport();
+            setGraphic(imageStackPane);
+        }
+
+        private void updateViewport() {
+            drawTextMarkups();
+            updateTiles();
+        }
+
+        /**
+         * @returns the part of the page in view in the coordinates of the
+         *          displayed page, or null if the page is not in view
+         */
+        private Rectangle2D getVisiblePageArea() {
+            if (isEmpty() || getItem() == null || requestedService == null || getScene() == null) {
+                return null;
+            }
+            Bounds viewport = pageBackground.sceneToLocal(pageListView.localToScene(pageListView.getLayoutBounds()));
+            double minX = Math.max(0, viewport.getMinX());
+            double minY = Math.max(0, viewport.getMinY());
+            double maxX = Math.min(pageWidth.get(), viewport.getMaxX());
+            double maxY = Math.min(pageWidth.get() / getPageRatio(), viewport.getMaxY());
+            if (minX >= maxX || minY >= maxY) {
+                return null;
+            }
+            return new Rectangle2D(minX, minY, maxX - minX, maxY - minY);
+        }
+
+        private double getPageRatio() {
+            Dimension2D pageSize = requestedService.getPageSize(getItem());
+            return pageSize.getWidth() / pageSize.getHeight();
+        }
+
+        /**
+         * @returns the displayed pixels per point of the page
+         */
+        private double getDisplayScale() {
+            return pageWidth.get() / requestedService.getPageSize(getItem()).getWidth();
         }
-        return stackList;
-    }
 
-    private StackPane createStackPane(BufferedImage textHighlightingOverlay, BufferedImage pdfTextOverlay) {
-        BufferedImage imageBackground = createBackgroundImage(pdfTextOverlay.getWidth(null),
-                pdfTextOverlay.getHeight(null));
+        private void drawTextMarkups() {
+            Rectangle2D visibleArea = getVisiblePageArea();
+            if (visibleArea == null) {
+                textMarkupCanvas.setWidth(0);
+                textMarkupCanvas.setHeight(0);
+                return;
+            }
+            textMarkupCanvas.relocate(visibleArea.getMinX(), visibleArea.getMinY());
+            textMarkupCanvas.setWidth(visibleArea.getWidth());
+            textMarkupCanvas.setHeight(visibleArea.getHeight());
+
+            GraphicsContext graphics = textMarkupCanvas.getGraphicsContext2D();
+            graphics.setTransform(1, 0, 0, 1, 0, 0);
+            graphics.clearRect(0, 0, textMarkupCanvas.getWidth(), textMarkupCanvas.getHeight());
+            graphics.translate(-visibleArea.getMinX(), -visibleArea.getMinY());
+            graphics.scale(getDisplayScale(), getDisplayScale());
+            textMarkupLayers.get().drawPage(graphics, getItem(), hiddenTextFindingTypes);
+        }
+
+        /**
+         * Requests the tiles in view on the level that matches the zoom and
+         * removes all other tiles. No tiles are needed if the image of the
+         * whole page is sharp enough.
+         */
+        private void updateTiles() {
+            Rectangle2D visibleArea = getVisiblePageArea();
+            Set<PageImageKey> visibleTiles = new HashSet<>();
+            if (visibleArea != null) {
+                int pageIndex = getItem();
+                int level = requestedService.getLevel(getDisplayScale());
+                if (level > 0) {
+                    double tileSize = PDFPageRenderService.TILE_SIZE * getDisplayScale()
+                            / requestedService.getLevelScale(level);
+                    Dimension2D levelPageSize = requestedService.getPageSize(pageIndex, level);
+                    int lastColumn = Math.min((int) (visibleArea.getMaxX() / tileSize),
+                            (int) Math.ceil(levelPageSize.getWidth() / PDFPageRenderService.TILE_SIZE) - 1);
+                    int lastRow = Math.min((int) (visibleArea.getMaxY() / tileSize),
+                            (int) Math.ceil(levelPageSize.getHeight() / PDFPageRenderService.TILE_SIZE) - 1);
+                    for (int row = (int) (visibleArea.getMinY() / tileSize); row <= lastRow; row++) {
+                        for (int column = (int) (visibleArea.getMinX() / tileSize); column <= lastColumn; column++) {
+                            visibleTiles.add(PageImageKey.ofTile(pageIndex, level, column, row));
+                        }
+                    }
+                }
+            }
+
+            boolean tilesChanged = removeTiles(visibleTiles);
+            for (PageImageKey tile : visibleTiles) {
+                if (!tileViews.containsKey(tile) && !tileRequests.containsKey(tile)) {
+                    Consumer<Image> tileRequester = image -> {
+                        tileRequests.remove(tile);
+                        showTile(tile, image);
+                    };
+                    Image tileImage = requestedService.requestTile(tile, tileRequester);
+                    if (tileImage != null) {
+                        addTile(tile, tileImage);
+                        tilesChanged = true;
+                    } else {
+                        tileRequests.put(tile, tileRequester);
+                    }
+                }
+            }
+            if (tilesChanged || (!tileViews.isEmpty() && tileScale != getDisplayScale())) {
+                layoutTiles();
+            }
+        }
 
-        ImageView textHighlightingImageView = textHighlightingOverlay == null ? new ImageView()
-                : createImageView(textHighlightingOverlay);
+        /**
+         * Withdraws the requests of all tiles that are not kept and removes
+         * their images
+         *
+         * @returns whether any image has been removed
+         */
+        private boolean removeTiles(Set<PageImageKey> keptTiles) {
+            Iterator<Map.Entry<PageImageKey, Consumer<Image>>> requests = tileRequests.entrySet().iterator();
+            while (requests.hasNext()) {
+                Map.Entry<PageImageKey, Consumer<Image>> request = requests.next();
+                if (!keptTiles.contains(request.getKey())) {
+                    requestedService.withdrawRequest(request.getKey(), request.getValue());
+                    requests.remove();
+                }
+            }
+            boolean removed = false;
+            Iterator<Map.Entry<PageImageKey, ImageView>> views = tileViews.entrySet().iterator();
+            while (views.hasNext()) {
+                Map.Entry<PageImageKey, ImageView> view = views.next();
+                if (!keptTiles.contains(view.getKey())) {
+                    tilePane.getChildren().remove(view.getValue());
+                    views.remove();
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        private void showTile(PageImageKey tile, Image tileImage) {
+            addTile(tile, tileImage);
+            layoutTiles();
+        }
 
-        ImageView backgroundImageView = createImageView(imageBackground);
-        ImageView pdfTextImageView = createImageView(pdfTextOverlay);
+        private void addTile(PageImageKey tile, Image tileImage) {
+            ImageView tileView = new ImageView(tileImage);
+            tileViews.put(tile, tileView);
+            tilePane.getChildren().add(tileView);
+        }
 
-        return stackImageViews(backgroundImageView, textHighlightingImageView, pdfTextImageView);
+        /**
+         * Moves the tiles to their place on the displayed page and clips them
+         * out of the image of the whole page, so its blurry text does not
+         * shine through
+         */
+        private void layoutTiles() {
+            tileScale = getDisplayScale();
+            if (tileViews.isEmpty()) {
+                pdfTextImageView.setClip(null);
+                return;
+            }
+            Path pageImageClip = new Path();
+            pageImageClip.setFillRule(FillRule.EVEN_ODD);
+            pageImageClip.setFill(Color.BLACK);
+            pageImageClip.setStroke(null);
+            addRectangle(pageImageClip, 0, 0, pageWidth.get(), pageWidth.get() / getPageRatio());
+            tileViews.forEach((tile, tileView) -> {
+                double scale = tileScale / requestedService.getLevelScale(tile.getLevel());
+                tileView.relocate(tile.getColumn() * PDFPageRenderService.TILE_SIZE * scale,
+                        tile.getRow() * PDFPageRenderService.TILE_SIZE * scale);
+                tileView.setFitWidth(tileView.getImage().getWidth() * scale);
+                tileView.setFitHeight(tileView.getImage().getHeight() * scale);
+                addRectangle(pageImageClip, tileView.getLayoutX(), tileView.getLayoutY(), tileView.getFitWidth(),
+                        tileView.getFitHeight());
+            });
+            pdfTextImageView.setClip(pageImageClip);
+        }
+
+        private void withdrawRequests() {
+            if (requestedService != null) {
+                removeTiles(new HashSet<>());
+                pdfTextImageView.setClip(null);
+                requestedService.withdrawRequest(requestedPageIndex, showPDFText);
+                requestedService = null;
+            }
+        }
+    }
+
+    private static void addRectangle(Path path, double x, double y, double width, double height) {
+        path.getElements().addAll(new MoveTo(x, y), new HLineTo(x + width), new VLineTo(y + height), new HLineTo(x),
+                new ClosePath());
+    }
+
+    /**
+     * @returns a pane of the size of the displayed page, its children are
+     *          placed in the coordinates of the page
+     */
+    private Pane createPageLayer() {
+        Pane pageLayer = new Pane();
+        pageLayer.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        return pageLayer;
     }
 
-    private BufferedImage createBackgroundImage(int width, int height) {
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics g = image.getGraphics();
-        g.setColor(java.awt.Color.WHITE);
-        g.fillRect(0, 0, width, height);
-        g.dispose();
-        return image;
+    private void bindPageSize(Region pageLayer, Dimension2D pageSize) {
+        pageLayer.prefWidthProperty().bind(pageWidth);
+        pageLayer.prefHeightProperty().bind(pageWidth.multiply(pageSize.getHeight() / pageSize.getWidth()));
     }
 
-    private ImageView createImageView(BufferedImage image) {
-        Image img = SwingFXUtils.toFXImage((BufferedImage) image, null);
-        ImageView imgView = new ImageView(img);
-        imgView.fitWidthProperty().bind(this.widthProperty().subtract(15));
+    private ImageView createImageView() {
+        ImageView imgView = new ImageView();
+        imgView.fitWidthProperty().bind(pageWidth);
         imgView.setPreserveRatio(true);
         return imgView;
     }
 
-    public StackPane stackImageViews(ImageView backgroundImageView, ImageView textHighlightingImageView,
-            ImageView pdfTextImageView) {
+    public StackPane stackImageViews(Pane pageBackground, ImageView pdfTextImageView, Pane tilePane) {
         StackPane imageStackPane = new StackPane();
-        imageStackPane.getChildren().addAll(backgroundImageView, textHighlightingImageView, pdfTextImageView);
+        imageStackPane.getChildren().addAll(pageBackground, pdfTextImageView, tilePane);
         imageStackPane.setPadding(new Insets(10, 0, 10, 0));
 
         return imageStackPane;
@@ -230,32 +533,76 @@ public class PDFPane extends VBox {
     private BorderPane createFileLocationPane() {
         BorderPane fileLocationPane = new BorderPane();
         fileLocationPane.setCenter(new Label("No document attached"));
+        fileLocationPane.setRight(createZoomBox());
         fileLocationPane.minHeightProperty().bind(this.heightProperty().multiply(0.03));
         fileLocationPane.maxHeightProperty().bind(this.heightProperty().multiply(0.03));
         return fileLocationPane;
     }
 
-    public List<BufferedImage> getTextMarkupOverlay() {
-        return textMarkupOverlay;
+    private HBox createZoomBox() {
+        Button zoomOutButton = new Button("-");
+        zoomOutButton.setOnAction(event -> zoomBy(1 / ZOOM_STEP));
+        Button zoomInButton = new Button("+");
+        zoomInButton.setOnAction(event -> zoomBy(ZOOM_STEP));
+        Label zoomLabel = new Label();
+        zoomLabel.textProperty().bind(Bindings.format("%.0f %%", zoom.multiply(100)));
+
+        HBox zoomBox = new HBox(5, zoomOutButton, zoomLabel, zoomInButton);
+        zoomBox.setAlignment(Pos.CENTER_RIGHT);
+        zoomBox.setPadding(new Insets(0, 10, 0, 0));
+        return zoomBox;
+    }
+
+    private void zoomBy(double factor) {
+        setZoom(zoom.get() * factor);
+    }
+
+    public double getZoom() {
+        return zoom.get();
+    }
+
+    /**
+     * @param zoom
+     *            the zoom of the pages, at 1 the pages fit the width of the
+     *            pane. It is limited to the range from 0.5 to 4.
+     */
+    public void setZoom(double zoom) {
+        this.zoom.set(Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom)));
+    }
+
+    public TextMarkupLayers getTextMarkupLayers() {
+        return textMarkupLayers.get();
     }
 
-    public void setTextMarkupOverlay(List<BufferedImage> textMarkupOverlay) {
-        this.textMarkupOverlay = textMarkupOverlay;
-        updateScrollPane();
+    /**
+     * Replaces the text markups, the pages in view are drawn again
+     */
+    public void setTextMarkupLayers(TextMarkupLayers textMarkupLayers) {
+        this.textMarkupLayers.set(textMarkupLayers);
     }
 
-    public List<BufferedImage> getPDFTextOverlay() {
-        return pdfTextOverlay;
+    public PDFPageRenderService getPageRenderService() {
+        return pageRenderService;
     }
 
-    public void setPDFTextOverlay(List<BufferedImage> pdfTextOverlay) {
-        this.pdfTextOverlay = pdfTextOverlay;
-        this.textMarkupOverlay = new ArrayList<BufferedImage>();
-        updateScrollPane();
+    /**
+     * Shows the pages of another document and removes the text markups
+     * 
+     * @param pageRenderService
+     *            renders the pages of the document or null to show no pages
+     */
+    public void setPageRenderService(PDFPageRenderService pageRenderService) {
+        this.pageRenderService = pageRenderService;
+        this.textMarkupLayers.set(new TextMarkupLayers());
+        int numberOfPages = pageRenderService == null ? 0 : pageRenderService.getNumberOfPages();
+        pageListView.getItems().setAll(IntStream.range(0, numberOfPages).boxed().collect(Collectors.toList()));
+        // cells of equal page indexes have to request the new document, too
+        pageListView.refresh();
+        pageListView.scrollTo(0);
     }
 
     public void setFileDescription(String description) {
-        fileLocationPane.getChildren().clear();
+        // the zoom box on the right stays
         fileLocationPane.setCenter(new Label(description));
     }
 }
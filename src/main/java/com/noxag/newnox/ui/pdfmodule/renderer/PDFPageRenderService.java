@@ -0,0 +1,454 @@
+package com.noxag.newnox.ui.pdfmodule.renderer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import javafx.application.Platform;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.geometry.Dimension2D;
+import javafx.scene.image.Image;
+
+/**
+ * This class renders the pages of a PDF document on demand, so only the pages
+ * that are actually displayed are rasterized
+ *
+ * <p>
+ * The pages are rendered concurrently on a bounded thread pool. PDFBox
+ * documents must not be used by several threads at once, so every worker
+ * loads a document of its own. Rendered pages are kept in a
+ * {@link PageImageCache}.
+ * </p>
+ *
+ * <p>
+ * Requested pages are rendered first, the most recent request first, because
+ * it belongs to the current viewport. A request that is withdrawn before its
+ * page has been rendered does not render the page at all. When the requests
+ * are done, the pages next to the requested ones are prefetched.
+ * </p>
+ *
+ * <p>
+ * Pages are rendered on several levels of resolution. Level 0 renders whole
+ * pages, which is sharp enough as long as a page is not zoomed in. The higher
+ * levels split a page into tiles of {@link #TILE_SIZE} pixels, so only the
+ * tiles in view have to be rendered when a page is zoomed in. Tiles are
+ * requested like pages, but nothing is prefetched for them.
+ * </p>
+ *
+ * <p>
+ * All methods except {@link #close()} have to be called on the JavaFX
+ * application thread, the requesters are notified there, too.
+ * </p>
+ *
+ */
+public class PDFPageRenderService implements Closeable {
+    /**
+     * The width and height of a tile in pixels, tiles at the right and the
+     * bottom of a page are smaller
+     */
+    public static final int TILE_SIZE = 512;
+
+    private static final Logger LOGGER = Logger.getLogger(PDFPageRenderService.class.getName());
+    // pixels per point of every level, 1 is 72 DPI
+    private static final float[] LEVEL_SCALES = { PDFPageRenderer.SCALING_FACTOR, 2f, 4f };
+    // tiles are rendered onto a transparent background like whole pages
+    private static final Color TRANSPARENT = new Color(255, 255, 255, 0);
+    private static final int MAX_WORKERS = 8;
+    private static final int PREFETCH_DISTANCE = 2;
+    // prefetches further away from the last requested page are dropped,
+    // because the viewport has moved on
+    private static final int PREFETCH_WINDOW = 8;
+
+    private final File pdfFile;
+    private final List<Dimension2D> pageSizes;
+    private final PageImageCache<PageImageKey> pageImages;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<PDDocument> workerDocuments;
+    private final ThreadLocal<PDFRenderer> renderers;
+    private final Queue<PDDocument> unusedDocuments;
+    private final Map<PageImageKey, List<Consumer<Image>>> requests;
+    private final Set<Integer> prefetches;
+    private final AtomicLong requestCount;
+    private volatile int lastRequestedPageIndex;
+    private volatile boolean closed;
+
+    /**
+     * The rendering of a single page or tile, requested images are ordered
+     * before prefetched pages and newer jobs before older jobs
+     */
+    private class RenderJob implements Runnable, Comparable<RenderJob> {
+        private final PageImageKey key;
+        private final boolean prefetch;
+        private final long sequenceNumber;
+
+        RenderJob(PageImageKey key, boolean prefetch) {
+            this.key = key;
+            this.prefetch = prefetch;
+            this.sequenceNumber = requestCount.incrementAndGet();
+        }
+
+        @Override
+        public void run() {
+            if (prefetch) {
+                prefetch(key.getPageIndex());
+            } else {
+                render(key);
+            }
+        }
+
+        @Override
+        public int compareTo(RenderJob other) {
+            if (prefetch != other.prefetch) {
+                return prefetch ? 1 : -1;
+            }
+            return Long.compare(other.sequenceNumber, sequenceNumber);
+        }
+    }
+
+    /**
+     * @param pdfFile
+     *            the file of the document to be rendered
+     * @throws IOException
+     *             if the document can't be loaded
+     */
+    public PDFPageRenderService(File pdfFile) throws IOException {
+        this(pdfFile, new PageImageCache<>());
+    }
+
+    public PDFPageRenderService(File pdfFile, PageImageCache<PageImageKey> pageImages) throws IOException {
+        this.pdfFile = pdfFile;
+        this.pageImages = pageImages;
+        this.workerDocuments = new ThreadLocal<>();
+        this.renderers = new ThreadLocal<>();
+        this.unusedDocuments = new ConcurrentLinkedQueue<>();
+        this.requests = new HashMap<>();
+        this.prefetches = new HashSet<>();
+        this.requestCount = new AtomicLong();
+
+        PDDocument document = PDDocument.load(pdfFile);
+        this.pageSizes = readPageSizes(document);
+        // the first worker takes over this document instead of loading it
+        // again
+        this.unusedDocuments.add(document);
+
+        int workerCount = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_WORKERS));
+        this.executor = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), createWorkerFactory());
+    }
+
+    private ThreadFactory createWorkerFactory() {
+        AtomicInteger workerCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    closeRenderer();
+                }
+            }, "PDF page rendering " + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static List<Dimension2D> readPageSizes(PDDocument document) {
+        List<Dimension2D> pageSizes = new ArrayList<>(document.getNumberOfPages());
+        for (PDPage page : document.getPages()) {
+            PDRectangle cropBox = page.getCropBox();
+            // the renderer turns rotated pages upright
+            if (page.getRotation() % 180 != 0) {
+                pageSizes.add(new Dimension2D(cropBox.getHeight(), cropBox.getWidth()));
+            } else {
+                pageSizes.add(new Dimension2D(cropBox.getWidth(), cropBox.getHeight()));
+            }
+        }
+        return pageSizes;
+    }
+
+    public int getNumberOfPages() {
+        return pageSizes.size();
+    }
+
+    /**
+     * @returns the size of the upright page in points, it is known before
+     *          the page has been rendered
+     */
+    public Dimension2D getPageSize(int pageIndex) {
+        return pageSizes.get(pageIndex);
+    }
+
+    /**
+     * @param displayScale
+     *            the pixels per point the page is displayed with
+     * @returns the lowest level that is at least as sharp as the display, or
+     *          the highest level if there is none
+     */
+    public int getLevel(double displayScale) {
+        for (int level = 0; level < LEVEL_SCALES.length - 1; level++) {
+            if (LEVEL_SCALES[level] >= displayScale) {
+                return level;
+            }
+        }
+        return LEVEL_SCALES.length - 1;
+    }
+
+    /**
+     * @returns the pixels per point of the level
+     */
+    public float getLevelScale(int level) {
+        return LEVEL_SCALES[level];
+    }
+
+    /**
+     * @returns the size of the page in pixels when it is rendered on the
+     *          level
+     */
+    public Dimension2D getPageSize(int pageIndex, int level) {
+        Dimension2D pageSize = pageSizes.get(pageIndex);
+        // rounded like the renderer rounds the size of its images
+        return new Dimension2D(Math.round(pageSize.getWidth() * LEVEL_SCALES[level]),
+                Math.round(pageSize.getHeight() * LEVEL_SCALES[level]));
+    }
+
+    /**
+     * Requests the image of a page and prefetches the pages next to it
+     *
+     * @param pageIndex
+     *            the index of the page, starting at 0
+     * @param requester
+     *            is called with the image once the page has been rendered,
+     *            unless the request has been withdrawn before
+     * @returns the image if it has already been rendered, the requester is
+     *          not called then. Null otherwise.
+     */
+    public Image requestPageImage(int pageIndex, Consumer<Image> requester) {
+        lastRequestedPageIndex = pageIndex;
+        Image pageImage = request(PageImageKey.ofPage(pageIndex), requester);
+        for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+            requestPrefetch(pageIndex + distance);
+            requestPrefetch(pageIndex - distance);
+        }
+        return pageImage;
+    }
+
+    /**
+     * Requests the image of a tile
+     *
+     * @param tile
+     *            the key of the tile, its column and row have to be within
+     *            the page
+     * @param requester
+     *            is called with the image once the tile has been rendered,
+     *            unless the request has been withdrawn before
+     * @returns the image if it has already been rendered, the requester is
+     *          not called then. Null otherwise.
+     */
+    public Image requestTile(PageImageKey tile, Consumer<Image> requester) {
+        return request(tile, requester);
+    }
+
+    private Image request(PageImageKey key, Consumer<Image> requester) {
+        Image image = pageImages.get(key);
+        if (image == null) {
+            synchronized (requests) {
+                List<Consumer<Image>> requesters = requests.get(key);
+                if (requesters == null) {
+                    requesters = new ArrayList<>();
+                    requests.put(key, requesters);
+                    executor.execute(new RenderJob(key, false));
+                }
+                requesters.add(requester);
+            }
+        }
+        return image;
+    }
+
+    private void requestPrefetch(int pageIndex) {
+        if (pageIndex < 0 || pageIndex >= pageSizes.size() || pageImages.get(PageImageKey.ofPage(pageIndex)) != null) {
+            return;
+        }
+        synchronized (requests) {
+            if (!requests.containsKey(PageImageKey.ofPage(pageIndex)) && prefetches.add(pageIndex)) {
+                executor.execute(new RenderJob(PageImageKey.ofPage(pageIndex), true));
+            }
+        }
+    }
+
+    /**
+     * Withdraws a request, for example because its page has been scrolled out
+     * of view
+     */
+    public void withdrawRequest(int pageIndex, Consumer<Image> requester) {
+        withdrawRequest(PageImageKey.ofPage(pageIndex), requester);
+    }
+
+    /**
+     * Withdraws the request of a page or a tile
+     */
+    public void withdrawRequest(PageImageKey key, Consumer<Image> requester) {
+        synchronized (requests) {
+            List<Consumer<Image>> requesters = requests.get(key);
+            if (requesters != null && requesters.remove(requester) && requesters.isEmpty()) {
+                requests.remove(key);
+            }
+        }
+    }
+
+    private void render(PageImageKey key) {
+        synchronized (requests) {
+            if (!requests.containsKey(key)) {
+                return;
+            }
+        }
+        Image image = pageImages.get(key);
+        if (image == null) {
+            image = key.isTile() ? renderTile(key) : renderPage(key.getPageIndex());
+        }
+        Image renderedImage = image;
+        Platform.runLater(() -> notifyRequesters(key, renderedImage));
+    }
+
+    /**
+     * Prefetches a page unless it has been requested meanwhile or the viewport
+     * has moved away from it
+     */
+    private void prefetch(int pageIndex) {
+        synchronized (requests) {
+            prefetches.remove(pageIndex);
+            if (requests.containsKey(PageImageKey.ofPage(pageIndex))) {
+                return;
+            }
+        }
+        if (!closed && Math.abs(pageIndex - lastRequestedPageIndex) <= PREFETCH_WINDOW
+                && pageImages.get(PageImageKey.ofPage(pageIndex)) == null) {
+            renderPage(pageIndex);
+        }
+    }
+
+    private Image renderPage(int pageIndex) {
+        try {
+            BufferedImage pageImage = getRenderer().renderImage(pageIndex, PDFPageRenderer.SCALING_FACTOR,
+                    ImageType.ARGB);
+            Image image = SwingFXUtils.toFXImage(pageImage, null);
+            pageImages.put(PageImageKey.ofPage(pageIndex), image);
+            return image;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Page " + (pageIndex + 1) + " could not be rendered", e);
+            return null;
+        }
+    }
+
+    /**
+     * Renders the page onto an image of the size of the tile that is moved to
+     * the position of the tile, so everything outside the tile is clipped
+     */
+    private Image renderTile(PageImageKey tile) {
+        Dimension2D pageSize = getPageSize(tile.getPageIndex(), tile.getLevel());
+        int x = tile.getColumn() * TILE_SIZE;
+        int y = tile.getRow() * TILE_SIZE;
+        BufferedImage tileImage = new BufferedImage(Math.min(TILE_SIZE, (int) pageSize.getWidth() - x),
+                Math.min(TILE_SIZE, (int) pageSize.getHeight() - y), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = tileImage.createGraphics();
+        try {
+            graphics.setBackground(TRANSPARENT);
+            graphics.translate(-x, -y);
+            getRenderer().renderPageToGraphics(tile.getPageIndex(), graphics, LEVEL_SCALES[tile.getLevel()]);
+            Image image = SwingFXUtils.toFXImage(tileImage, null);
+            pageImages.put(tile, image);
+            return image;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Tile " + tile + " could not be rendered", e);
+            return null;
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private PDFRenderer getRenderer() throws IOException {
+        PDFRenderer renderer = renderers.get();
+        if (renderer == null) {
+            PDDocument document = unusedDocuments.poll();
+            if (document == null) {
+                document = PDDocument.load(pdfFile);
+            }
+            workerDocuments.set(document);
+            renderer = new PDFRenderer(document);
+            renderers.set(renderer);
+        }
+        return renderer;
+    }
+
+    private void notifyRequesters(PageImageKey key, Image image) {
+        List<Consumer<Image>> requesters;
+        synchronized (requests) {
+            requesters = requests.remove(key);
+        }
+        if (requesters != null && image != null) {
+            requesters.forEach(requester -> requester.accept(image));
+        }
+    }
+
+    /**
+     * Withdraws all requests, every worker closes its document once the image
+     * it currently renders is finished
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (requests) {
+            requests.clear();
+        }
+        executor.shutdown();
+        PDDocument document;
+        while ((document = unusedDocuments.poll()) != null) {
+            closeDocument(document);
+        }
+    }
+
+    /**
+     * Closes the document of the current worker
+     */
+    private void closeRenderer() {
+        PDDocument document = workerDocuments.get();
+        if (document != null) {
+            workerDocuments.remove();
+            renderers.remove();
+            closeDocument(document);
+        }
+    }
+
+    private static void closeDocument(PDDocument document) {
+        try {
+            document.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "PDF document could not be closed", e);
+        }
+    }
+
+}
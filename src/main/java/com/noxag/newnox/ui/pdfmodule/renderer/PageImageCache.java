@@ -0,0 +1,87 @@
+package com.noxag.newnox.ui.pdfmodule.renderer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+
+/**
+ * This class keeps rendered images up to a fixed amount of memory and evicts
+ * the least recently used images first
+ *
+ * <p>
+ * The memory of an image is estimated with four bytes per pixel. The most
+ * recently added image is always kept, even if it exceeds the limit on its
+ * own.
+ * </p>
+ *
+ * @param <K>
+ *            the key of an image
+ */
+public class PageImageCache<K> {
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private final long maxBytes;
+    private final LinkedHashMap<K, Image> images;
+    private long bytes;
+
+    /**
+     * Creates a cache that may use a quarter of the heap
+     */
+    public PageImageCache() {
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * @param maxBytes
+     *            the memory the images may use
+     */
+    public PageImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.images = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @returns the image or null if it is not cached
+     */
+    public synchronized Image get(K key) {
+        return images.get(key);
+    }
+
+    public synchronized void put(K key, Image image) {
+        Image replacedImage = images.put(key, image);
+        if (replacedImage != null) {
+            bytes -= getBytes(replacedImage);
+        }
+        bytes += getBytes(image);
+
+        Iterator<Map.Entry<K, Image>> leastRecentlyUsed = images.entrySet().iterator();
+        while (bytes > maxBytes && images.size() > 1) {
+            Map.Entry<K, Image> entry = leastRecentlyUsed.next();
+            bytes -= getBytes(entry.getValue());
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        images.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @returns the estimated memory of all cached images
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static long getBytes(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.noxag.newnox.ui.pdfmodule.renderer;
+
+/**
+ * This class identifies an image rendered by the {@link PDFPageRenderService}
+ *
+ * <p>
+ * Level 0 is the image of a whole page. The higher levels are rendered with
+ * a higher resolution, so their pages are split into tiles that are
+ * identified by their column and row.
+ * </p>
+ *
+ */
+public final class PageImageKey {
+    private final int pageIndex;
+    private final int level;
+    private final int column;
+    private final int row;
+
+    private PageImageKey(int pageIndex, int level, int column, int row) {
+        this.pageIndex = pageIndex;
+        this.level = level;
+        this.column = column;
+        this.row = row;
+    }
+
+    /**
+     * @param pageIndex
+     *            the index of the page, starting at 0
+     * @returns the key of the image of the whole page
+     */
+    public static PageImageKey ofPage(int pageIndex) {
+        return new PageImageKey(pageIndex, 0, 0, 0);
+    }
+
+    /**
+     * @param pageIndex
+     *            the index of the page, starting at 0
+     * @param level
+     *            the level of the tile, at least 1
+     * @param column
+     *            the column of the tile, starting at 0 on the left
+     * @param row
+     *            the row of the tile, starting at 0 on the top
+     * @returns the key of a tile of the page
+     */
+    public static PageImageKey ofTile(int pageIndex, int level, int column, int row) {
+        if (level < 1) {
+            throw new IllegalArgumentException("Tiles start at level 1, but the level is " + level);
+        }
+        return new PageImageKey(pageIndex, level, column, row);
+    }
+
+    public int getPageIndex() {
+        return pageIndex;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public boolean isTile() {
+        return level > 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PageImageKey)) {
+            return false;
+        }
+        PageImageKey other = (PageImageKey) obj;
+        return pageIndex == other.pageIndex && level == other.level && column == other.column && row == other.row;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = pageIndex;
+        hash = 31 * hash + level;
+        hash = 31 * hash + column;
+        return 31 * hash + row;
+    }
+
+    @Override
+    public String toString() {
+        return "PageImageKey [pageIndex=" + pageIndex + ", level=" + level + ", column=" + column + ", row=" + row
+                + "]";
+    }
+
+}
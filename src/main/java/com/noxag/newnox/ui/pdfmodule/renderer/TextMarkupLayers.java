@@ -0,0 +1,151 @@
+package com.noxag.newnox.ui.pdfmodule.renderer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationTextMarkup;
+
+import com.noxag.newnox.textanalyzer.data.TextFinding;
+import com.noxag.newnox.textanalyzer.data.TextFinding.TextFindingType;
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textlogic.PDFTextMarker;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * This class keeps the text markups of {@link TextFinding}s as rectangles,
+ * page by page and in one layer per {@link TextFindingType}
+ *
+ * <p>
+ * The markups are drawn as vectors straight onto a canvas, so neither the
+ * PDF document has to be annotated nor an overlay image has to be rendered
+ * for every page. Any layer can be hidden by just drawing the page again.
+ * Findings without a type are always drawn.
+ * </p>
+ *
+ * <p>
+ * The rectangles are stored in points from the upper left corner of the
+ * page and have the shape of their markup subtype already, see
+ * {@link PDFTextMarker#toTextMarkupSubType(TextFindingType)}.
+ * </p>
+ *
+ */
+public class TextMarkupLayers {
+    private static final Logger LOGGER = Logger.getLogger(TextMarkupLayers.class.getName());
+    private static final List<TextFindingType> LAYER_ORDER = createLayerOrder();
+
+    private final Map<Integer, Map<TextFindingType, List<Rectangle2D>>> pages;
+    private final Map<TextFindingType, Color> colors;
+
+    public TextMarkupLayers() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * @param textFindings
+     *            the findings to be marked
+     */
+    public TextMarkupLayers(List<TextFinding> textFindings) {
+        this.pages = new HashMap<>();
+        this.colors = new HashMap<>();
+        for (TextFinding finding : textFindings) {
+            String subType = PDFTextMarker.toTextMarkupSubType(finding.getType());
+            for (TextPositionSequence textPositionSequence : finding.getTextPositionSequences()) {
+                pages.computeIfAbsent(textPositionSequence.getPageIndex() - 1, pageIndex -> new HashMap<>())
+                        .computeIfAbsent(finding.getType(), type -> new ArrayList<>())
+                        .add(createTextMarkupShape(textPositionSequence, subType));
+            }
+            colors.computeIfAbsent(finding.getType(), TextMarkupLayers::toColor);
+        }
+    }
+
+    private static List<TextFindingType> createLayerOrder() {
+        List<TextFindingType> layerOrder = new ArrayList<>(Arrays.asList(TextFindingType.values()));
+        layerOrder.add(null);
+        return Collections.unmodifiableList(layerOrder);
+    }
+
+    /**
+     * The shape of a markup is derived from the rectangle of its text like
+     * the annotations of the {@link PDFTextMarker} are drawn
+     */
+    private static Rectangle2D createTextMarkupShape(TextPositionSequence textPositionSequence, String subType) {
+        // the text positions are measured from the bottom of the page
+        float x = textPositionSequence.getX();
+        float y = textPositionSequence.getY();
+        float width = textPositionSequence.getWidth();
+        float height = textPositionSequence.getHeight();
+        switch (subType) {
+        case PDAnnotationTextMarkup.SUB_TYPE_UNDERLINE:
+            y -= height / 3;
+            height /= 4;
+            break;
+        case PDAnnotationTextMarkup.SUB_TYPE_STRIKEOUT:
+            float newHeight = height / 4;
+            y += height / 2 - newHeight;
+            height = newHeight;
+            break;
+        }
+        float top = textPositionSequence.getPageHeight() - Math.max(y, y + height);
+        return new Rectangle2D(Math.min(x, x + width), top, Math.abs(width), Math.abs(height));
+    }
+
+    private static Color toColor(TextFindingType type) {
+        try {
+            return toFXColor(PDFTextMarker.toColor(type).toRGB());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Color of text markup could not be read", e);
+            return Color.RED;
+        }
+    }
+
+    private static Color toFXColor(int rgb) {
+        return Color.rgb((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * @returns whether there are any markups at all
+     */
+    public boolean isEmpty() {
+        return pages.isEmpty();
+    }
+
+    /**
+     * Draws the markups of a page
+     *
+     * @param graphics
+     *            the graphics of the canvas, its transformation has to scale
+     *            points to pixels
+     * @param pageIndex
+     *            the index of the page, starting at 0
+     * @param hiddenTypes
+     *            the layers that are not drawn
+     */
+    public void drawPage(GraphicsContext graphics, int pageIndex, Set<TextFindingType> hiddenTypes) {
+        Map<TextFindingType, List<Rectangle2D>> layers = pages.get(pageIndex);
+        if (layers == null) {
+            return;
+        }
+        for (TextFindingType type : LAYER_ORDER) {
+            List<Rectangle2D> markups = layers.get(type);
+            if (markups == null || (type != null && hiddenTypes.contains(type))) {
+                continue;
+            }
+            graphics.setFill(colors.get(type));
+            for (Rectangle2D markup : markups) {
+                graphics.fillRect(markup.getMinX(), markup.getMinY(), markup.getWidth(), markup.getHeight());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.noxag.newnox.textanalyzer;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import com.noxag.newnox.textanalyzer.data.pdf.PDFPage;
+import com.noxag.newnox.textanalyzer.util.PDFTextExtractionUtil;
+
+/**
+ * This class creates small PDF documents for the tests
+ *
+ * <p>
+ * Every page is given as its lines, which are set left aligned in Helvetica
+ * with a fixed line spacing. Like most typesetting systems do, the words are
+ * placed one by one instead of writing space characters.
+ * </p>
+ *
+ */
+public final class TestDocuments {
+    private static final PDFont FONT = PDType1Font.HELVETICA;
+    private static final float FONT_SIZE = 12;
+    private static final float LINE_SPACING = 14;
+
+    /**
+     * @param pages
+     *            the lines of every page
+     * @returns a new document, which has to be closed by the caller
+     */
+    public static PDDocument create(String[]... pages) throws IOException {
+        PDDocument document = new PDDocument();
+        for (String[] lines : pages) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                for (int line = 0; line < lines.length; line++) {
+                    showLine(content, lines[line], 700 - line * LINE_SPACING);
+                }
+            }
+        }
+        return document;
+    }
+
+    private static void showLine(PDPageContentStream content, String line, float y) throws IOException {
+        float x = 72;
+        for (String word : line.split(" ")) {
+            if (!word.isEmpty()) {
+                content.beginText();
+                content.setFont(FONT, FONT_SIZE);
+                content.newLineAtOffset(x, y);
+                content.showText(word);
+                content.endText();
+            }
+            x += FONT.getStringWidth(word + " ") / 1000 * FONT_SIZE;
+        }
+    }
+
+    /**
+     * @param pages
+     *            the lines of every page
+     * @returns the extracted text of a new document
+     */
+    public static List<PDFPage> extract(String[]... pages) throws IOException {
+        try (PDDocument document = create(pages)) {
+            return PDFTextExtractionUtil.extractText(document);
+        }
+    }
+
+    private TestDocuments() {
+        // hide constructor, because this is a completely static class
+    }
+
+}
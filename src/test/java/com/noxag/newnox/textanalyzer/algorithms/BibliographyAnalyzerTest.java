@@ -0,0 +1,71 @@
+package com.noxag.newnox.textanalyzer.algorithms;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.Test;
+
+import com.noxag.newnox.textanalyzer.TestDocuments;
+import com.noxag.newnox.textanalyzer.TextanalyzerContext;
+import com.noxag.newnox.textanalyzer.data.Finding;
+import com.noxag.newnox.textanalyzer.data.TextFinding;
+
+public class BibliographyAnalyzerTest {
+    private static final String[] BIBLIOGRAPHY = { "Literaturverzeichnis",
+            "Becker, A. et al. (2017): Verfahren der Textanalyse. Berlin.",
+            "Meier, K. (2019): Methoden der Textanalyse. Hamburg.",
+            "Schulz, P.; Wagner, T. (2018a): Erweiterte Methoden. Wien." };
+
+    @Test
+    public void findsAuthorYearCitations() throws IOException {
+        List<String> findings = analyze(new String[] { "Die Methode ist bekannt (Meier 2019) und erprobt.",
+                "Sie wurde erweitert (vgl. Schulz und Wagner 2018a; Becker et al. 2017).",
+                "Eine weitere Quelle fehlt (Fischer 2015) im Verzeichnis." }, BIBLIOGRAPHY);
+
+        assertEquals(Arrays.asList("BIBLIOGRAPHY Fischer", "POSITIVE_BIBLIOGRAPHY Becker",
+                "POSITIVE_BIBLIOGRAPHY Meier", "POSITIVE_BIBLIOGRAPHY Schulz"), findings);
+    }
+
+    @Test
+    public void ignoresYearsInRemarks() throws IOException {
+        List<String> findings = analyze(new String[] { "Die Zahlen stammen aus der Erhebung (Stand 2019) des Amtes.",
+                "Die Werte (Stand: Mrz 2019) sind noch vorlufig.",
+                "Der Verlauf (Abbildung 3 zeigt den Stand von 2019) ist deutlich.",
+                "Die Ergebnisse (Meier 2019 und spter) werden diskutiert.",
+                "Im Zeitraum (Januar bis Juni 2018) sank die Quote." }, BIBLIOGRAPHY);
+
+        assertEquals(Arrays.asList(), findings);
+    }
+
+    @Test
+    public void requiresTheEndOfTheCitationAfterTheYear() throws IOException {
+        List<String> findings = analyze(
+                new String[] { "Wie gezeigt wurde (Meier 2019, S. 12) gilt dies auch (Becker et al. 2017)." },
+                BIBLIOGRAPHY);
+
+        assertEquals(Arrays.asList("POSITIVE_BIBLIOGRAPHY Becker"), findings);
+    }
+
+    /**
+     * @returns the text findings as their type and first word in the order
+     *          of the findings
+     */
+    private static List<String> analyze(String[]... pages) throws IOException {
+        List<String> textFindings = new ArrayList<>();
+        try (PDDocument document = TestDocuments.create(pages)) {
+            for (Finding finding : new BibliographyAnalyzer().run(new TextanalyzerContext(document))) {
+                if (finding instanceof TextFinding) {
+                    TextFinding textFinding = (TextFinding) finding;
+                    textFindings.add(textFinding.getType() + " " + textFinding.getTextPositionSequences().get(0));
+                }
+            }
+        }
+        return textFindings;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noxag.newnox.textanalyzer.TestDocuments;
+
+public class PDFPageSerializerTest {
+
+    @Test
+    public void readsWrittenPagesBack() throws IOException {
+        List<PDFPage> pages = TestDocuments.extract(new String[] { "Die erste Zeile, mit Komma.", "Zweite Zeile" },
+                new String[] { "Eine weitere Seite" });
+        pages.get(1).setPageNum(7);
+
+        List<PDFPage> readPages = writeAndRead(pages);
+
+        assertPagesEqual(pages, readPages);
+        assertEquals(null, readPages.get(0).getPageNum());
+        assertEquals(Integer.valueOf(7), readPages.get(1).getPageNum());
+    }
+
+    @Test
+    public void readsWordsOfSeveralRangesBack() throws IOException {
+        PDFPage page = TestDocuments.extract(new String[] { "Zusammen gesetzte Worte" }).get(0);
+        List<TextPositionSequence> words = page.getWords();
+        TextPositionSequence joined = TextPositionSequence.concat(words.get(0), words.get(2));
+        List<PDFArticle> articles = new ArrayList<>();
+        PDFParagraph paragraph = new PDFParagraph();
+        paragraph.getLines().add(new PDFLine(Arrays.asList(joined, words.get(1))));
+        articles.add(new PDFArticle(Arrays.asList(paragraph)));
+        List<PDFPage> pages = Arrays.asList(new PDFPage(articles));
+
+        List<PDFPage> readPages = writeAndRead(pages);
+
+        TextPositionSequence readWord = readPages.get(0).getWords().get(0);
+        assertEquals("ZusammenWorte", readWord.toString());
+        assertEquals(joined.length(), readWord.length());
+        assertEquals('W', readWord.charAt(8));
+        assertEquals("enWo", readWord.subSequence(6, 10).toString());
+        assertWordEquals(joined, readWord);
+        assertPagesEqual(pages, readPages);
+    }
+
+    @Test
+    public void sharesOneFontTableAcrossThePagesReadAtOnce() throws IOException {
+        List<PDFPage> pages = TestDocuments.extract(new String[] { "Seite eins" }, new String[] { "Seite zwei" });
+
+        List<PDFPage> readPages = writeAndRead(pages);
+
+        FontTable fontTable = readPages.get(0).getFirstWord().getFontTable();
+        assertSame(fontTable, readPages.get(1).getFirstWord().getFontTable());
+        assertNotSame(pages.get(0).getFirstWord().getFontTable(), fontTable);
+        assertEquals(readPages.get(0).getFirstWord().getFontId(), readPages.get(1).getFirstWord().getFontId());
+    }
+
+    @Test
+    public void keepsThePunctuationFlags() throws IOException {
+        List<PDFPage> readPages = writeAndRead(TestDocuments.extract(new String[] { "Ende ." }));
+
+        List<TextPositionSequence> words = readPages.get(0).getWords();
+        assertFalse(words.get(0).isPunctuationMark());
+        assertTrue(words.get(words.size() - 1).isPunctuationMark());
+    }
+
+    private static List<PDFPage> writeAndRead(List<PDFPage> pages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            PDFPageSerializer.write(pages, out);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        List<PDFPage> readPages = PDFPageSerializer.read(buffer);
+        assertFalse("all bytes are read", buffer.hasRemaining());
+        return readPages;
+    }
+
+    private static void assertPagesEqual(List<PDFPage> expected, List<PDFPage> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int page = 0; page < expected.size(); page++) {
+            List<PDFArticle> expectedArticles = expected.get(page).getArticles();
+            List<PDFArticle> actualArticles = actual.get(page).getArticles();
+            assertEquals(expectedArticles.size(), actualArticles.size());
+            for (int article = 0; article < expectedArticles.size(); article++) {
+                List<PDFParagraph> expectedParagraphs = expectedArticles.get(article).getParagraphs();
+                List<PDFParagraph> actualParagraphs = actualArticles.get(article).getParagraphs();
+                assertEquals(expectedParagraphs.size(), actualParagraphs.size());
+                for (int paragraph = 0; paragraph < expectedParagraphs.size(); paragraph++) {
+                    List<PDFLine> expectedLines = expectedParagraphs.get(paragraph).getLines();
+                    List<PDFLine> actualLines = actualParagraphs.get(paragraph).getLines();
+                    assertEquals(expectedLines.size(), actualLines.size());
+                    for (int line = 0; line < expectedLines.size(); line++) {
+                        List<TextPositionSequence> expectedWords = expectedLines.get(line).getWords();
+                        List<TextPositionSequence> actualWords = actualLines.get(line).getWords();
+                        assertEquals(expectedWords.size(), actualWords.size());
+                        for (int word = 0; word < expectedWords.size(); word++) {
+                            assertWordEquals(expectedWords.get(word), actualWords.get(word));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertWordEquals(TextPositionSequence expected, TextPositionSequence actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getX(), actual.getX(), 0);
+        assertEquals(expected.getY(), actual.getY(), 0);
+        assertEquals(expected.getWidth(), actual.getWidth(), 0);
+        assertEquals(expected.getHeight(), actual.getHeight(), 0);
+        assertEquals(expected.getFontSize(), actual.getFontSize(), 0);
+        assertEquals(expected.getFontName(), actual.getFontName());
+        assertEquals(expected.getPageIndex(), actual.getPageIndex());
+        assertEquals(expected.isPunctuationMark(), actual.isPunctuationMark());
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SpaceSavingTokenCountsTest {
+
+    @Test
+    public void countsExactlyWhileThereIsCapacity() {
+        SpaceSavingTokenCounts counts = new SpaceSavingTokenCounts(4);
+        for (int token : new int[] { 7, 3, 7, 9, 7, 3 }) {
+            counts.add(token);
+        }
+
+        assertEquals(3, counts.size());
+        assertEquals(3, counts.getCount(7));
+        assertEquals(2, counts.getCount(3));
+        assertEquals(1, counts.getCount(9));
+        assertEquals(0, counts.getCount(5));
+        assertEquals(0, counts.getError(7));
+    }
+
+    @Test
+    public void evictsTheLeastFrequentToken() {
+        SpaceSavingTokenCounts counts = new SpaceSavingTokenCounts(2);
+        for (int token : new int[] { 1, 1, 2, 3 }) {
+            counts.add(token);
+        }
+
+        assertEquals(2, counts.size());
+        assertEquals(2, counts.getCount(1));
+        assertEquals(0, counts.getCount(2));
+        assertEquals("the new token inherits the count of the evicted one", 2, counts.getCount(3));
+        assertEquals(1, counts.getError(3));
+        assertArrayEquals(new int[] { 1, 3 }, counts.getTopTokens(2, token -> true));
+    }
+
+    /**
+     * Many distinct tokens in a small table make the tokens collide, so every
+     * eviction shifts the following entries of the table back. All counted
+     * tokens still have to be found afterwards.
+     */
+    @Test
+    public void findsAllTokensAfterEvictions() {
+        int capacity = 8;
+        SpaceSavingTokenCounts counts = new SpaceSavingTokenCounts(capacity);
+        int[] exactCounts = new int[64];
+        Random random = new Random(42);
+        for (int added = 1; added <= 5000; added++) {
+            // a skewed distribution, small tokens are frequent
+            int token = (int) Math.min(exactCounts.length - 1, Math.abs(random.nextGaussian()) * 12);
+            counts.add(token);
+            exactCounts[token]++;
+
+            assertEquals(Math.min(capacity, distinct(exactCounts)), counts.size());
+            int[] countSum = new int[1];
+            counts.forEachToken(countedToken -> {
+                int count = counts.getCount(countedToken);
+                assertTrue("counted token " + countedToken + " is found", count > 0);
+                assertTrue(count >= exactCounts[countedToken]);
+                assertTrue(count - counts.getError(countedToken) <= exactCounts[countedToken]);
+                countSum[0] += count;
+            });
+            assertEquals(added, countSum[0]);
+        }
+        for (int token = 0; token < exactCounts.length; token++) {
+            if (exactCounts[token] > 5000 / capacity) {
+                assertTrue("frequent token " + token + " is counted", counts.getCount(token) > 0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyCapacity() {
+        new SpaceSavingTokenCounts(0);
+    }
+
+    private static int distinct(int[] exactCounts) {
+        int distinct = 0;
+        for (int count : exactCounts) {
+            if (count > 0) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+}
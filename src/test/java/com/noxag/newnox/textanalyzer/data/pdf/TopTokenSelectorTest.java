@@ -0,0 +1,39 @@
+package com.noxag.newnox.textanalyzer.data.pdf;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+public class TopTokenSelectorTest {
+    private static final int[] COUNTS = { 5, 1, 9, 5, 0, 7, 2, 5 };
+
+    @Test
+    public void keepsTheMostFrequentTokens() {
+        assertArrayEquals(new int[] { 2, 5, 0 }, select(3, 0, 1, 2, 3, 4, 5, 6, 7));
+    }
+
+    @Test
+    public void ordersTokensWithTheSameCountByTheirId() {
+        assertArrayEquals(new int[] { 0, 3, 7, 6 }, select(4, 7, 6, 3, 0));
+    }
+
+    @Test
+    public void keepsAllTokensIfThereAreFewer() {
+        assertArrayEquals(new int[] { 5, 1 }, select(10, 1, 5));
+    }
+
+    @Test
+    public void keepsNothingForNoCapacity() {
+        assertArrayEquals(new int[0], select(0, 0, 1, 2));
+        assertArrayEquals(new int[0], select(-1, 0, 1, 2));
+    }
+
+    private static int[] select(int k, int... tokens) {
+        TopTokenSelector selector = new TopTokenSelector(k, token -> COUNTS[token]);
+        for (int token : tokens) {
+            selector.offer(token);
+        }
+        return selector.toArray();
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noxag.newnox.textanalyzer.TestDocuments;
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+import com.noxag.newnox.textanalyzer.util.PhraseMatcher.Match;
+
+public class PhraseMatcherTest {
+
+    @Test
+    public void findsOverlappingPhrases() throws IOException {
+        PhraseMatcher matcher = matcher("im Grunde", "Grunde genommen", "im Grunde genommen");
+
+        List<Match> matches = matcher.findMatches(words("Das ist im Grunde genommen richtig"));
+
+        assertMatches(matches, "0 2 4", "2 2 5", "1 3 5");
+    }
+
+    @Test
+    public void findsPhrasesThatAreSuffixesOfOthers() throws IOException {
+        PhraseMatcher matcher = matcher("in Bezug auf", "Bezug auf", "auf");
+
+        List<Match> matches = matcher.findMatches(words("in Bezug auf den Text"));
+
+        assertMatches(matches, "0 0 3", "1 1 3", "2 2 3");
+    }
+
+    @Test
+    public void findsSuffixOfAPhraseThatIsNotCompleted() throws IOException {
+        PhraseMatcher matcher = matcher("nach wie vor nicht", "wie vor");
+
+        List<Match> matches = matcher.findMatches(words("nach wie vor gut und nach wie vor nicht"));
+
+        assertMatches(matches, "1 1 3", "0 5 9", "1 6 8");
+    }
+
+    @Test
+    public void restartsAfterUnknownWords() throws IOException {
+        PhraseMatcher matcher = matcher("zum Beispiel");
+
+        List<Match> matches = matcher.findMatches(words("zum Teil zum zum Beispiel"));
+
+        assertMatches(matches, "0 3 5");
+    }
+
+    @Test
+    public void ignoresCaseAndEmptyPhrases() throws IOException {
+        PhraseMatcher matcher = new PhraseMatcher(Arrays.asList(new ArrayList<>(), Arrays.asList("ZUM", "beispiel")));
+
+        List<TextPositionSequence> words = words("Zum Beispiel");
+        List<Match> matches = matcher.findMatches(words);
+
+        assertMatches(matches, "1 0 2");
+        assertEquals(words, matches.get(0).getWords());
+        assertEquals(2, matcher.size());
+    }
+
+    private static PhraseMatcher matcher(String... phrases) {
+        List<List<String>> phraseWords = new ArrayList<>();
+        for (String phrase : phrases) {
+            phraseWords.add(Arrays.asList(phrase.split(" ")));
+        }
+        return new PhraseMatcher(phraseWords);
+    }
+
+    private static List<TextPositionSequence> words(String line) throws IOException {
+        return TestDocuments.extract(new String[] { line }).get(0).getWords();
+    }
+
+    /**
+     * @param expected
+     *            every match as its phrase, its start and its end
+     */
+    private static void assertMatches(List<Match> matches, String... expected) {
+        List<String> actual = new ArrayList<>();
+        for (Match match : matches) {
+            actual.add(match.getPhrase() + " " + match.getStart() + " " + match.getEnd());
+        }
+        assertEquals(Arrays.asList(expected), actual);
+    }
+
+}
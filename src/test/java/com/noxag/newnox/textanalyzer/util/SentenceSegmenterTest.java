@@ -0,0 +1,50 @@
+package com.noxag.newnox.textanalyzer.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.noxag.newnox.textanalyzer.TestDocuments;
+import com.noxag.newnox.textanalyzer.data.pdf.PDFTextIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.SentenceIndex;
+import com.noxag.newnox.textanalyzer.data.pdf.TextPositionSequence;
+
+public class SentenceSegmenterTest {
+    private static final SentenceSegmenter SEGMENTER = SentenceSegmenter
+            .fromAbbreviationList(SentenceSegmenter.DEFAULT_ABBREVIATION_LIST_PATH);
+
+    @Test
+    public void doesNotEndSentencesAtAbbreviations() throws IOException {
+        List<String> sentences = segment("Es gibt Quellen, z.B. Texte und Bilder. Diese werden",
+                "gezeigt (vgl. Meier 2019). Danach folgt der Rest.");
+
+        assertEquals(Arrays.asList("Es gibt Quellen , z . B . Texte und Bilder .",
+                "Diese werden gezeigt ( vgl . Meier 2019 ) .", "Danach folgt der Rest ."), sentences);
+    }
+
+    @Test
+    public void endsSentencesBeforeUpperCaseWords() throws IOException {
+        List<String> sentences = segment("Es gilt: Alles fliesst. Das ist ein Satz. und kein", "Ende.");
+
+        assertEquals(Arrays.asList("Es gilt :", "Alles fliesst .", "Das ist ein Satz . und kein Ende ."), sentences);
+    }
+
+    private static List<String> segment(String... lines) throws IOException {
+        SentenceIndex sentenceIndex = SEGMENTER.segment(PDFTextIndex.of(TestDocuments.extract(lines)));
+        List<String> sentences = new ArrayList<>();
+        for (int sentence = 0; sentence < sentenceIndex.size(); sentence++) {
+            List<String> words = new ArrayList<>();
+            for (TextPositionSequence word : sentenceIndex.getWords(sentence)) {
+                words.add(word.toString());
+            }
+            sentences.add(String.join(" ", words));
+        }
+        return sentences;
+    }
+
+}